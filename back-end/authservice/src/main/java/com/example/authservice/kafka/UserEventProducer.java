@@ -1,8 +1,8 @@
 package com.example.authservice.kafka;
 
 import com.example.authservice.commons.entities.UserModel;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.events.EventCodec;
+import com.example.events.UserEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,15 +15,15 @@ import java.time.LocalDateTime;
 public class UserEventProducer {
     private static final Logger log = LoggerFactory.getLogger(UserEventProducer.class);
     
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final EventCodec eventCodec;
     
     @Autowired
     public UserEventProducer(
-            KafkaTemplate<String, String> kafkaTemplate,
-            ObjectMapper objectMapper) {
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            EventCodec eventCodec) {
         this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+        this.eventCodec = eventCodec;
     }
     
     public void sendUserCreatedEvent(UserModel user) {
@@ -36,50 +36,21 @@ public class UserEventProducer {
     
     public void sendUserDeletedEvent(UserModel user) {
         sendUserEvent(user, "USER_DELETED");
+        // Lápida: user-events está compactado por id de usuario y así la compactación acaba eliminando al usuario
+        kafkaTemplate.send("user-events", user.getId().toString(), null);
     }
     
     private void sendUserEvent(UserModel user, String eventType) {
         try {
-            // Crear objeto de evento (debe ser compatible con UserEvent en game-service-api)
-            UserEvent event = new UserEvent();
-            event.setEventType(eventType);
-            event.setUserId(user.getId());
-            event.setEmail(user.getEmail());
-            event.setName(user.getUsername());
-            event.setTimestamp(LocalDateTime.now());
-            
-            String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("user-events", user.getId().toString(), eventJson);
+            // UserEvent viene del módulo event-schemas, el mismo que usa game-service-api para leerlo
+            UserEvent event = new UserEvent(eventType, user.getId(), user.getEmail(), user.getUsername(), LocalDateTime.now(), null, null);
+            event.assignIdentity();
+            kafkaTemplate.send("user-events", user.getId().toString(), eventCodec.encode(event));
             
             log.info("Evento {} enviado para usuario ID: {}", eventType, user.getId());
-        } catch (JsonProcessingException e) {
-            log.error("Error al serializar evento de usuario: {}", e.getMessage(), e);
+        } catch (RuntimeException e) {
+            log.error("Error al codificar evento de usuario: {}", e.getMessage(), e);
             throw new RuntimeException("Error al enviar evento de usuario", e);
         }
     }
-    
-    // Clase interna para manejar el evento - debe tener la misma estructura que en game-service-api
-    private static class UserEvent {
-        private String eventType;
-        private Long userId;
-        private String email;
-        private String name;
-        private LocalDateTime timestamp;
-        
-        // Getters y setters
-        public String getEventType() { return eventType; }
-        public void setEventType(String eventType) { this.eventType = eventType; }
-        
-        public Long getUserId() { return userId; }
-        public void setUserId(Long userId) { this.userId = userId; }
-        
-        public String getEmail() { return email; }
-        public void setEmail(String email) { this.email = email; }
-        
-        public String getName() { return name; }
-        public void setName(String name) { this.name = name; }
-        
-        public LocalDateTime getTimestamp() { return timestamp; }
-        public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
-    }
-} 
\ No newline at end of file
+}
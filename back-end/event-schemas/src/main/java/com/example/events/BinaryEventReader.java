@@ -0,0 +1,106 @@
+package com.example.events;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+// Lectura de los campos escritos por BinaryEventWriter sobre el cuerpo de una trama
+public class BinaryEventReader {
+    private final byte[] data;
+    private final int end;
+    private int position;
+
+    public BinaryEventReader(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    // Los campos añadidos en versiones posteriores van al final: si no quedan bytes, el emisor es más antiguo
+    public boolean hasRemaining() {
+        return position < end;
+    }
+
+    public int readByte() {
+        if (position >= end) {
+            throw new IllegalArgumentException("Evento binario truncado");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+
+    public Long readNullableLong() {
+        long raw = readVarLong();
+        if (raw == 0) {
+            return null;
+        }
+        long zigzag = raw - 1;
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public Integer readNullableInt() {
+        Long value = readNullableLong();
+        return value != null ? value.intValue() : null;
+    }
+
+    public Boolean readNullableBoolean() {
+        int value = readByte();
+        return value == 2 ? null : value == 1;
+    }
+
+    public String readNullableString() {
+        long length = readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        int size = (int) (length - 1);
+        if (size > end - position) {
+            throw new IllegalArgumentException("Evento binario truncado");
+        }
+        String value = new String(data, position, size, StandardCharsets.UTF_8);
+        position += size;
+        return value;
+    }
+
+    public Instant readNullableInstant() {
+        Long millis = readNullableLong();
+        return millis != null ? Instant.ofEpochMilli(millis) : null;
+    }
+
+    public LocalDateTime readNullableLocalDateTime() {
+        Instant instant = readNullableInstant();
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneOffset.UTC) : null;
+    }
+
+    public UUID readNullableUuid() {
+        if (readByte() == 0) {
+            return null;
+        }
+        return new UUID(readFixedLong(), readFixedLong());
+    }
+
+    private long readFixedLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+}
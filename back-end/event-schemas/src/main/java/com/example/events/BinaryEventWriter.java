@@ -0,0 +1,101 @@
+package com.example.events;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Escritura de campos del formato binario: enteros como varint (zigzag para los que admiten negativos)
+ * y cadenas con prefijo de longitud. Los campos opcionales se escriben con un valor reservado para null
+ * (longitud 0 en cadenas, 0 en varints desplazados en uno, 2 en booleanos).
+ */
+public class BinaryEventWriter {
+    private final ByteArrayOutputStream out;
+
+    public BinaryEventWriter(int expectedSize) {
+        this.out = new ByteArrayOutputStream(expectedSize);
+    }
+
+    public void writeByte(int value) {
+        out.write(value);
+    }
+
+    public void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    public void writeNullableLong(Long value) {
+        if (value == null) {
+            writeVarLong(0);
+        } else {
+            // Zigzag + 1, para que 0 quede libre como marca de null. Long.MIN_VALUE daría la vuelta hasta ese 0
+            if (value == Long.MIN_VALUE) {
+                throw new IllegalArgumentException("Long.MIN_VALUE no se puede codificar");
+            }
+            writeVarLong(((value << 1) ^ (value >> 63)) + 1);
+        }
+    }
+
+    public void writeNullableInt(Integer value) {
+        writeNullableLong(value != null ? value.longValue() : null);
+    }
+
+    public void writeNullableBoolean(Boolean value) {
+        out.write(value == null ? 2 : (value ? 1 : 0));
+    }
+
+    public void writeNullableString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    public void writeNullableInstant(Instant value) {
+        writeNullableLong(value != null ? value.toEpochMilli() : null);
+    }
+
+    // Se guarda con precisión de milisegundos, como en los timestamps de Kafka
+    public void writeNullableLocalDateTime(LocalDateTime value) {
+        writeNullableInstant(value != null ? value.toInstant(ZoneOffset.UTC) : null);
+    }
+
+    // Marca (0 = null, 1 = presente) y los 16 bytes del UUID, la mitad que su forma de texto
+    public void writeNullableUuid(UUID value) {
+        if (value == null) {
+            out.write(0);
+            return;
+        }
+        out.write(1);
+        writeFixedLong(value.getMostSignificantBits());
+        writeFixedLong(value.getLeastSignificantBits());
+    }
+
+    private void writeFixedLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    public void writeBytes(byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    public int size() {
+        return out.size();
+    }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+}
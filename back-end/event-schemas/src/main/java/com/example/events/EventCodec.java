@@ -0,0 +1,100 @@
+package com.example.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Codifica y decodifica los eventos Kafka compartidos.
+ *
+ * Trama binaria: [MAGIC][id de esquema][versión][longitud del cuerpo (varint)][cuerpo].
+ * El primer byte nunca coincide con el inicio de un JSON, así que al leer se distinguen los dos formatos
+ * sin cabeceras: los mensajes JSON de productores antiguos se siguen entendiendo durante el despliegue,
+ * y con EventEncoding.JSON un productor nuevo puede seguir emitiendo JSON hasta que todos los consumidores
+ * se hayan actualizado.
+ */
+public class EventCodec {
+    static final int MAGIC = 0xE5;
+    private static final int HEADER_SIZE = 8;
+
+    private final EventEncoding encoding;
+    private final ObjectMapper objectMapper;
+
+    public EventCodec(EventEncoding encoding, ObjectMapper objectMapper) {
+        this.encoding = encoding;
+        // Los eventos de versiones más nuevas pueden traer campos que este lector no conoce
+        this.objectMapper = objectMapper.copy()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, false);
+    }
+
+    public EventCodec(EventEncoding encoding) {
+        this(encoding, new ObjectMapper());
+    }
+
+    public EventEncoding getEncoding() {
+        return encoding;
+    }
+
+    public byte[] encode(Object event) {
+        return encoding == EventEncoding.JSON ? encodeJson(event) : encodeBinary(event);
+    }
+
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Evento vacío");
+        }
+        return (data[0] & 0xFF) == MAGIC ? decodeBinary(data, type) : decodeJson(data, type);
+    }
+
+    public byte[] encodeBinary(Object event) {
+        EventSchema schema = EventSchema.forType(event.getClass());
+        BinaryEventWriter body = new BinaryEventWriter(64);
+        schema.fieldCodec().write(event, body);
+
+        BinaryEventWriter frame = new BinaryEventWriter(HEADER_SIZE + body.size());
+        frame.writeByte(MAGIC);
+        frame.writeByte(schema.getId());
+        frame.writeByte(schema.getCurrentVersion());
+        frame.writeVarLong(body.size());
+        frame.writeBytes(body.toByteArray());
+        return frame.toByteArray();
+    }
+
+    public byte[] encodeJson(Object event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al serializar el evento a JSON", e);
+        }
+    }
+
+    private <T> T decodeBinary(byte[] data, Class<T> type) {
+        BinaryEventReader header = new BinaryEventReader(data, 0, data.length);
+        header.readByte(); // MAGIC
+        EventSchema schema = EventSchema.forId(header.readByte());
+        if (!schema.getEventType().equals(type)) {
+            throw new IllegalArgumentException("Se esperaba " + type.getSimpleName() + " y el evento es " + schema);
+        }
+        int version = header.readByte();
+        long bodyLength = header.readVarLong();
+        // El cuerpo empieza justo tras la cabecera y ocupa el resto del mensaje, ni más ni menos
+        int bodyOffset = header.position();
+        if (bodyLength < 0 || bodyOffset + bodyLength != data.length) {
+            throw new IllegalArgumentException("Evento binario truncado o con bytes sobrantes");
+        }
+        return schema.<T>fieldCodec().read(new BinaryEventReader(data, bodyOffset, (int) bodyLength), version);
+    }
+
+    private <T> T decodeJson(byte[] data, Class<T> type) {
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al leer el evento JSON", e);
+        }
+    }
+}
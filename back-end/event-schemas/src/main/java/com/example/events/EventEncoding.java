@@ -0,0 +1,7 @@
+package com.example.events;
+
+// Formato con el que se producen los eventos; al leer se aceptan siempre los dos
+public enum EventEncoding {
+    BINARY,
+    JSON
+}
@@ -0,0 +1,8 @@
+package com.example.events;
+
+// Escritura y lectura de los campos del cuerpo de un tipo de evento
+interface EventFieldCodec<T> {
+    void write(T event, BinaryEventWriter writer);
+
+    T read(BinaryEventReader reader, int version);
+}
@@ -0,0 +1,220 @@
+package com.example.events;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registro local de esquemas, en lugar de un schema registry externo: cada tipo de evento tiene un id
+ * estable, la versión actual de su formato binario y los topics en los que se publica.
+ *
+ * Reglas de evolución: los campos nuevos solo se añaden al final del cuerpo y se sube la versión.
+ * Un lector antiguo ignora los bytes sobrantes de un emisor más nuevo, y un lector nuevo comprueba
+ * hasRemaining() antes de leer los campos que un emisor antiguo no escribía.
+ */
+public enum EventSchema {
+    GAME(1, 2, GameEvent.class, List.of("event.game-created", "event.game-status-changed"),
+            new EventFieldCodec<GameEvent>() {
+                @Override
+                public void write(GameEvent event, BinaryEventWriter writer) {
+                    writer.writeNullableLong(event.getId());
+                    writer.writeNullableString(event.getName());
+                    writer.writeNullableString(event.getStatus());
+                    writer.writeNullableInt(event.getPlayers());
+                    writer.writeNullableInstant(event.getCreatedAt());
+                    writer.writeNullableInstant(event.getLastUpdated());
+                    writer.writeNullableLong(event.getTimeElapsed());
+                    writer.writeNullableInt(event.getUserId());
+                    writer.writeNullableString(event.getGameType());
+                    writer.writeNullableBoolean(event.getIsPublic());
+                    writer.writeNullableBoolean(event.getAllowSpectators());
+                    writer.writeNullableBoolean(event.getEnableChat());
+                    writer.writeNullableBoolean(event.getRecordStats());
+                    // Versión 2
+                    writer.writeNullableUuid(event.getEventId());
+                    writer.writeNullableInstant(event.getProducedAt());
+                }
+
+                @Override
+                public GameEvent read(BinaryEventReader reader, int version) {
+                    GameEvent event = new GameEvent();
+                    event.setId(reader.readNullableLong());
+                    event.setName(reader.readNullableString());
+                    event.setStatus(reader.readNullableString());
+                    event.setPlayers(reader.readNullableInt());
+                    event.setCreatedAt(reader.readNullableInstant());
+                    event.setLastUpdated(reader.readNullableInstant());
+                    event.setTimeElapsed(reader.readNullableLong());
+                    event.setUserId(reader.readNullableInt());
+                    event.setGameType(reader.readNullableString());
+                    event.setIsPublic(reader.readNullableBoolean());
+                    event.setAllowSpectators(reader.readNullableBoolean());
+                    event.setEnableChat(reader.readNullableBoolean());
+                    event.setRecordStats(reader.readNullableBoolean());
+                    // Versión 2: un emisor de la versión 1 no los escribe
+                    if (reader.hasRemaining()) {
+                        event.setEventId(reader.readNullableUuid());
+                        event.setProducedAt(reader.readNullableInstant());
+                    }
+                    return event;
+                }
+            }),
+
+    GAME_ERROR(2, 2, GameErrorEvent.class, List.of("event.game-error-reported"),
+            new EventFieldCodec<GameErrorEvent>() {
+                @Override
+                public void write(GameErrorEvent event, BinaryEventWriter writer) {
+                    writer.writeNullableLong(event.getGameId());
+                    writer.writeNullableString(event.getGameName());
+                    writer.writeNullableLong(event.getReportedByUserId());
+                    writer.writeNullableString(event.getReportedByUserName());
+                    writer.writeNullableString(event.getErrorDescription());
+                    writer.writeNullableLocalDateTime(event.getTimestamp());
+                    // Versión 2
+                    writer.writeNullableUuid(event.getEventId());
+                    writer.writeNullableInstant(event.getProducedAt());
+                }
+
+                @Override
+                public GameErrorEvent read(BinaryEventReader reader, int version) {
+                    GameErrorEvent event = new GameErrorEvent();
+                    event.setGameId(reader.readNullableLong());
+                    event.setGameName(reader.readNullableString());
+                    event.setReportedByUserId(reader.readNullableLong());
+                    event.setReportedByUserName(reader.readNullableString());
+                    event.setErrorDescription(reader.readNullableString());
+                    event.setTimestamp(reader.readNullableLocalDateTime());
+                    // Versión 2: un emisor de la versión 1 no los escribe
+                    if (reader.hasRemaining()) {
+                        event.setEventId(reader.readNullableUuid());
+                        event.setProducedAt(reader.readNullableInstant());
+                    }
+                    return event;
+                }
+            }),
+
+    USER(3, 2, UserEvent.class, List.of("user-events"),
+            new EventFieldCodec<UserEvent>() {
+                @Override
+                public void write(UserEvent event, BinaryEventWriter writer) {
+                    writer.writeNullableString(event.getEventType());
+                    writer.writeNullableLong(event.getUserId());
+                    writer.writeNullableString(event.getEmail());
+                    writer.writeNullableString(event.getName());
+                    writer.writeNullableLocalDateTime(event.getTimestamp());
+                    // Versión 2
+                    writer.writeNullableUuid(event.getEventId());
+                    writer.writeNullableInstant(event.getProducedAt());
+                }
+
+                @Override
+                public UserEvent read(BinaryEventReader reader, int version) {
+                    UserEvent event = new UserEvent();
+                    event.setEventType(reader.readNullableString());
+                    event.setUserId(reader.readNullableLong());
+                    event.setEmail(reader.readNullableString());
+                    event.setName(reader.readNullableString());
+                    event.setTimestamp(reader.readNullableLocalDateTime());
+                    // Versión 2: un emisor de la versión 1 no los escribe
+                    if (reader.hasRemaining()) {
+                        event.setEventId(reader.readNullableUuid());
+                        event.setProducedAt(reader.readNullableInstant());
+                    }
+                    return event;
+                }
+            }),
+
+    PARTICIPATION(4, 2, ParticipationEvent.class, List.of("event.participation-joined", "event.participation-left"),
+            new EventFieldCodec<ParticipationEvent>() {
+                @Override
+                public void write(ParticipationEvent event, BinaryEventWriter writer) {
+                    writer.writeNullableString(event.getEventType());
+                    writer.writeNullableLong(event.getParticipationId());
+                    writer.writeNullableLong(event.getUserId());
+                    writer.writeNullableLong(event.getGameId());
+                    writer.writeNullableLocalDateTime(event.getJoinedAt());
+                    writer.writeNullableLocalDateTime(event.getLeftAt());
+                    writer.writeNullableInt(event.getTimePlayedMinutes());
+                    writer.writeNullableUuid(event.getEventId());
+                    writer.writeNullableInstant(event.getProducedAt());
+                    // Versión 2
+                    writer.writeNullableString(event.getUserEmail());
+                    writer.writeNullableString(event.getGameName());
+                }
+
+                @Override
+                public ParticipationEvent read(BinaryEventReader reader, int version) {
+                    ParticipationEvent event = new ParticipationEvent();
+                    event.setEventType(reader.readNullableString());
+                    event.setParticipationId(reader.readNullableLong());
+                    event.setUserId(reader.readNullableLong());
+                    event.setGameId(reader.readNullableLong());
+                    event.setJoinedAt(reader.readNullableLocalDateTime());
+                    event.setLeftAt(reader.readNullableLocalDateTime());
+                    event.setTimePlayedMinutes(reader.readNullableInt());
+                    event.setEventId(reader.readNullableUuid());
+                    event.setProducedAt(reader.readNullableInstant());
+                    // Versión 2: un emisor de la versión 1 no los escribe
+                    if (reader.hasRemaining()) {
+                        event.setUserEmail(reader.readNullableString());
+                        event.setGameName(reader.readNullableString());
+                    }
+                    return event;
+                }
+            });
+
+    private final int id;
+    private final int currentVersion;
+    private final Class<?> eventType;
+    private final List<String> topics;
+    private final EventFieldCodec<?> fieldCodec;
+
+    EventSchema(int id, int currentVersion, Class<?> eventType, List<String> topics, EventFieldCodec<?> fieldCodec) {
+        this.id = id;
+        this.currentVersion = currentVersion;
+        this.eventType = eventType;
+        this.topics = topics;
+        this.fieldCodec = fieldCodec;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getCurrentVersion() {
+        return currentVersion;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public List<String> getTopics() {
+        return topics;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> EventFieldCodec<T> fieldCodec() {
+        return (EventFieldCodec<T>) fieldCodec;
+    }
+
+    public static EventSchema forId(int id) {
+        return Arrays.stream(values())
+                .filter(schema -> schema.id == id)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Esquema de evento desconocido: " + id));
+    }
+
+    public static EventSchema forType(Class<?> type) {
+        return Arrays.stream(values())
+                .filter(schema -> schema.eventType.equals(type))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No hay esquema para " + type.getName()));
+    }
+
+    public static EventSchema forTopic(String topic) {
+        return Arrays.stream(values())
+                .filter(schema -> schema.topics.contains(topic))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No hay esquema para el topic " + topic));
+    }
+}
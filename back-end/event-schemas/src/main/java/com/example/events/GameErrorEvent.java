@@ -1,19 +1,25 @@
-package com.example.game_service_api.kafka;
+package com.example.events;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
+// Evento de event.game-error-reported
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class GameErrorEvent {
+public class GameErrorEvent implements IdentifiedEvent {
     private Long gameId;
     private String gameName;
     private Long reportedByUserId;
     private String reportedByUserName;
     private String errorDescription;
     private LocalDateTime timestamp;
-} 
\ No newline at end of file
+    // Añadidos en la versión 2 del esquema
+    private UUID eventId;
+    private Instant producedAt;
+}
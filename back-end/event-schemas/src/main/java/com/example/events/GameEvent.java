@@ -0,0 +1,32 @@
+package com.example.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Evento de event.game-created y event.game-status-changed. Los nombres coinciden con el JSON de GameDTO
+// para poder leer los mensajes antiguos durante un despliegue con versiones mezcladas
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameEvent implements IdentifiedEvent {
+    private Long id;
+    private String name;
+    private String status;
+    private Integer players;
+    private Instant createdAt;
+    private Instant lastUpdated;
+    private Long timeElapsed;
+    private Integer userId;
+    private String gameType;
+    private Boolean isPublic;
+    private Boolean allowSpectators;
+    private Boolean enableChat;
+    private Boolean recordStats;
+    // Añadidos en la versión 2 del esquema
+    private UUID eventId;
+    private Instant producedAt;
+}
@@ -0,0 +1,29 @@
+package com.example.events;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Identidad de un evento: un id único asignado al producirlo y el instante en que se produjo.
+ * El id se conserva en los reenvíos (outbox, reintentos, DLT), así que los consumidores lo usan
+ * para descartar entregas duplicadas.
+ */
+public interface IdentifiedEvent {
+    UUID getEventId();
+
+    void setEventId(UUID eventId);
+
+    Instant getProducedAt();
+
+    void setProducedAt(Instant producedAt);
+
+    // Asigna id e instante si todavía no los tiene; un evento que ya se produjo conserva los suyos
+    default void assignIdentity() {
+        if (getEventId() == null) {
+            setEventId(UUID.randomUUID());
+        }
+        if (getProducedAt() == null) {
+            setProducedAt(Instant.now());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Evento de event.participation-joined y event.participation-left, con el id del juego como clave del mensaje
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationEvent implements IdentifiedEvent {
+    public static final String JOINED = "PARTICIPATION_JOINED";
+    public static final String LEFT = "PARTICIPATION_LEFT";
+
+    private String eventType;
+    private Long participationId;
+    private Long userId;
+    private Long gameId;
+    private LocalDateTime joinedAt;
+    private LocalDateTime leftAt;
+    private Integer timePlayedMinutes;
+    private UUID eventId;
+    private Instant producedAt;
+    // Versión 2: lo necesario para que las demás réplicas muestren el participante sin ir a la base de datos
+    private String userEmail;
+    private String gameName;
+}
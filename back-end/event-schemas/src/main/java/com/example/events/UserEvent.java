@@ -1,18 +1,24 @@
-package com.example.game_service_api.kafka;
+package com.example.events;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
+// Evento de user-events, producido por authservice y consumido por game-service-api
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class UserEvent {
+public class UserEvent implements IdentifiedEvent {
     private String eventType; // "USER_CREATED", "USER_UPDATED", "USER_DELETED"
     private Long userId;
     private String email;
     private String name;
     private LocalDateTime timestamp;
-} 
\ No newline at end of file
+    // Añadidos en la versión 2 del esquema
+    private UUID eventId;
+    private Instant producedAt;
+}
@@ -0,0 +1,74 @@
+package com.example.events;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Comparación rápida de tamaño y coste de codificación entre JSON y el formato binario.
+ * No es un test: se lanza a mano con ./mvnw test-compile exec:java
+ */
+public class EventCodecBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        EventCodec codec = new EventCodec(EventEncoding.BINARY);
+
+        // El formato binario guarda las fechas en milisegundos
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        run(codec, GameEvent.class, new GameEvent(42L, "Partida de prueba", "IN_PROGRESS", 8, now, now,
+                3_600L, 7, "STRATEGY", true, false, true, true, UUID.randomUUID(), now));
+        run(codec, GameErrorEvent.class, new GameErrorEvent(42L, "Partida de prueba", 7L, "jugador7",
+                "El tablero no se actualiza tras el turno", timestamp, UUID.randomUUID(), now));
+        run(codec, UserEvent.class, new UserEvent("USER_UPDATED", 7L, "jugador7@example.com", "jugador7",
+                timestamp, UUID.randomUUID(), now));
+        // Se codifica en el hilo de la petición al unirse a un juego (ver GameEventProducer en game-service-api)
+        run(codec, ParticipationEvent.class, new ParticipationEvent(ParticipationEvent.JOINED, 1_234L, 7L, 42L,
+                timestamp, null, null, UUID.randomUUID(), now, "jugador7@example.com", "Partida de prueba"));
+
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static <T> void run(EventCodec codec, Class<T> type, T event) {
+        byte[] json = codec.encodeJson(event);
+        byte[] binary = codec.encodeBinary(event);
+        if (!event.equals(codec.decode(binary, type)) || !event.equals(codec.decode(json, type))) {
+            throw new IllegalStateException("La decodificación no reproduce el evento original: " + type.getSimpleName());
+        }
+
+        measure(codec, type, event, true, WARMUP_ITERATIONS);
+        measure(codec, type, event, false, WARMUP_ITERATIONS);
+        double[] jsonNanos = measure(codec, type, event, true, MEASURED_ITERATIONS);
+        double[] binaryNanos = measure(codec, type, event, false, MEASURED_ITERATIONS);
+
+        System.out.printf("%s%n", type.getSimpleName());
+        System.out.printf("  JSON:    %4d bytes, codificar %7.1f ns, decodificar %7.1f ns%n", json.length, jsonNanos[0], jsonNanos[1]);
+        System.out.printf("  binario: %4d bytes, codificar %7.1f ns, decodificar %7.1f ns (%.0f%% del tamaño JSON)%n",
+                binary.length, binaryNanos[0], binaryNanos[1], 100.0 * binary.length / json.length);
+    }
+
+    // Nanosegundos medios por operación: [codificar, decodificar]
+    private static <T> double[] measure(EventCodec codec, Class<T> type, T event, boolean json, int iterations) {
+        byte[] encoded = json ? codec.encodeJson(event) : codec.encodeBinary(event);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            byte[] bytes = json ? codec.encodeJson(event) : codec.encodeBinary(event);
+            sink += bytes.length;
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += codec.decode(encoded, type).hashCode();
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        return new double[]{(double) encodeNanos / iterations, (double) decodeNanos / iterations};
+    }
+}
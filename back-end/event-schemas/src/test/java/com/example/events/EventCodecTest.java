@@ -0,0 +1,181 @@
+package com.example.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventCodecTest {
+    // El formato binario guarda las fechas en milisegundos
+    private static final Instant NOW = Instant.parse("2026-03-01T10:15:30.123Z");
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2026, 3, 1, 10, 15, 30).plus(456, ChronoUnit.MILLIS);
+
+    private final EventCodec codec = new EventCodec(EventEncoding.BINARY);
+
+    @Test
+    void roundTripsEverySchema() {
+        assertRoundTrip(GameEvent.class, new GameEvent(42L, "Partida", "IN_PROGRESS", 8, NOW, NOW,
+                3_600L, 7, "STRATEGY", true, false, true, null, UUID.randomUUID(), NOW));
+        assertRoundTrip(GameErrorEvent.class, new GameErrorEvent(42L, "Partida", 7L, "jugador7",
+                "El tablero no se actualiza — ñandú", TIMESTAMP, UUID.randomUUID(), NOW));
+        assertRoundTrip(UserEvent.class, new UserEvent("USER_UPDATED", 7L, "jugador7@example.com", "jugador7",
+                TIMESTAMP, UUID.randomUUID(), NOW));
+        assertRoundTrip(ParticipationEvent.class, new ParticipationEvent(ParticipationEvent.LEFT, 1_234L, 7L, 42L,
+                TIMESTAMP, TIMESTAMP.plusMinutes(90), 90, UUID.randomUUID(), NOW, "jugador7@example.com", "Partida"));
+    }
+
+    @Test
+    void roundTripsEventsWithEveryFieldNull() {
+        assertRoundTrip(GameEvent.class, new GameEvent());
+        assertRoundTrip(GameErrorEvent.class, new GameErrorEvent());
+        assertRoundTrip(UserEvent.class, new UserEvent());
+        assertRoundTrip(ParticipationEvent.class, new ParticipationEvent());
+    }
+
+    @Test
+    void distinguishesNullFromZeroAndNegativeLongs() {
+        for (Long value : new Long[]{null, 0L, 1L, -1L, 63L, -64L, 64L, Integer.MIN_VALUE - 1L, Long.MAX_VALUE, Long.MIN_VALUE + 1}) {
+            ParticipationEvent event = new ParticipationEvent();
+            event.setParticipationId(value);
+            event.setUserId(value);
+            event.setTimePlayedMinutes(value != null ? value.intValue() : null);
+            assertRoundTrip(ParticipationEvent.class, event);
+        }
+        ParticipationEvent event = new ParticipationEvent();
+        event.setUserId(Long.MIN_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> codec.encodeBinary(event));
+    }
+
+    @Test
+    void readsVersion1GameEvents() {
+        BinaryEventWriter body = new BinaryEventWriter(64);
+        body.writeNullableLong(42L);
+        body.writeNullableString("Partida");
+        body.writeNullableString("IN_PROGRESS");
+        body.writeNullableInt(8);
+        body.writeNullableInstant(NOW);
+        body.writeNullableInstant(null);
+        body.writeNullableLong(3_600L);
+        body.writeNullableInt(7);
+        body.writeNullableString("STRATEGY");
+        body.writeNullableBoolean(true);
+        body.writeNullableBoolean(false);
+        body.writeNullableBoolean(null);
+        body.writeNullableBoolean(true);
+
+        GameEvent event = codec.decode(frame(EventSchema.GAME, 1, body.toByteArray()), GameEvent.class);
+        assertEquals(new GameEvent(42L, "Partida", "IN_PROGRESS", 8, NOW, null, 3_600L, 7, "STRATEGY",
+                true, false, null, true, null, null), event);
+    }
+
+    @Test
+    void readsVersion1ParticipationEvents() {
+        UUID eventId = UUID.randomUUID();
+        BinaryEventWriter body = new BinaryEventWriter(64);
+        body.writeNullableString(ParticipationEvent.JOINED);
+        body.writeNullableLong(1_234L);
+        body.writeNullableLong(7L);
+        body.writeNullableLong(42L);
+        body.writeNullableLocalDateTime(TIMESTAMP);
+        body.writeNullableLocalDateTime(null);
+        body.writeNullableInt(null);
+        body.writeNullableUuid(eventId);
+        body.writeNullableInstant(NOW);
+
+        ParticipationEvent event = codec.decode(frame(EventSchema.PARTICIPATION, 1, body.toByteArray()), ParticipationEvent.class);
+        assertEquals(new ParticipationEvent(ParticipationEvent.JOINED, 1_234L, 7L, 42L, TIMESTAMP, null, null,
+                eventId, NOW, null, null), event);
+    }
+
+    @Test
+    void ignoresFieldsAddedByNewerVersions() {
+        UserEvent event = new UserEvent("USER_DELETED", 7L, null, null, TIMESTAMP, UUID.randomUUID(), NOW);
+        byte[] body = body(codec.encodeBinary(event));
+        byte[] newer = Arrays.copyOf(body, body.length + 3);
+        newer[body.length] = 1;
+
+        assertEquals(event, codec.decode(frame(EventSchema.USER, EventSchema.USER.getCurrentVersion() + 1, newer), UserEvent.class));
+    }
+
+    @Test
+    void rejectsTruncatedMessages() {
+        byte[] encoded = codec.encodeBinary(new ParticipationEvent(ParticipationEvent.JOINED, 1_234L, 7L, 42L,
+                TIMESTAMP, null, null, UUID.randomUUID(), NOW, "jugador7@example.com", "Partida"));
+        for (int length = 1; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated, ParticipationEvent.class),
+                    "longitud " + length);
+        }
+    }
+
+    @Test
+    void rejectsTrailingBytesAfterTheBody() {
+        byte[] encoded = codec.encodeBinary(new UserEvent("USER_CREATED", 7L, "a@example.com", "a", TIMESTAMP, null, null));
+        byte[] padded = Arrays.copyOf(encoded, encoded.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(padded, UserEvent.class));
+    }
+
+    @Test
+    void rejectsMessagesOfAnotherSchema() {
+        byte[] encoded = codec.encodeBinary(new UserEvent());
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(encoded, GameEvent.class));
+        byte[] unknown = encoded.clone();
+        unknown[1] = 99;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(unknown, UserEvent.class));
+    }
+
+    @Test
+    void readsJsonFromProducersThatHaveNotMigrated() {
+        byte[] json = ("{\"eventType\":\"USER_CREATED\",\"userId\":7,\"email\":\"a@example.com\"," +
+                "\"timestamp\":\"2026-03-01T10:15:30.456\",\"campoNuevo\":1}").getBytes(StandardCharsets.UTF_8);
+
+        UserEvent event = codec.decode(json, UserEvent.class);
+        assertEquals("USER_CREATED", event.getEventType());
+        assertEquals(7L, event.getUserId());
+        assertEquals(TIMESTAMP, event.getTimestamp());
+        assertNull(event.getEventId());
+    }
+
+    @Test
+    void jsonEncodingRoundTrips() {
+        EventCodec jsonCodec = new EventCodec(EventEncoding.JSON);
+        GameEvent event = new GameEvent(42L, "Partida", "FINISHED", 2, NOW, NOW, 60L, 7, "PUZZLE",
+                false, true, false, true, UUID.randomUUID(), NOW);
+
+        byte[] json = jsonCodec.encode(event);
+        assertEquals('{', json[0]);
+        assertEquals(event, codec.decode(json, GameEvent.class));
+    }
+
+    private <T> void assertRoundTrip(Class<T> type, T event) {
+        assertEquals(event, codec.decode(codec.encodeBinary(event), type));
+    }
+
+    private static byte[] frame(EventSchema schema, int version, byte[] body) {
+        BinaryEventWriter frame = new BinaryEventWriter(body.length + 8);
+        frame.writeByte(EventCodec.MAGIC);
+        frame.writeByte(schema.getId());
+        frame.writeByte(version);
+        frame.writeVarLong(body.length);
+        frame.writeBytes(body);
+        return frame.toByteArray();
+    }
+
+    // Cuerpo de una trama binaria, sin la cabecera
+    private static byte[] body(byte[] frame) {
+        BinaryEventReader reader = new BinaryEventReader(frame, 0, frame.length);
+        reader.readByte();
+        reader.readByte();
+        reader.readByte();
+        reader.readVarLong();
+        return Arrays.copyOfRange(frame, reader.position(), frame.length);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Página de resultados con paginación por cursor (keyset): el cliente envía nextCursor para pedir la siguiente
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,20 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Fila de estadísticas diarias de tiempo jugado, leída de game_daily_stats
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPlaytimeStatsDTO {
+    private LocalDate day; // Día en que se cerraron las sesiones
+    private Long gameId; // Nulo al agrupar por tipo de juego o solo por día
+    private String gameType; // Nulo al agrupar solo por día
+    private Long sessions;
+    private Long totalMinutes;
+    private Double averageMinutes;
+    private Integer maxMinutes;
+}
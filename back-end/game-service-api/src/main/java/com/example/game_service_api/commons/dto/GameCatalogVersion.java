@@ -0,0 +1,9 @@
+package com.example.game_service_api.commons.dto;
+
+import java.util.Date;
+
+// Proyección con la última modificación y el número de juegos, usada para validar la caché del listado
+public interface GameCatalogVersion {
+    Date getLastUpdated();
+    Long getTotal();
+}
@@ -29,6 +29,25 @@ public class GameDTO {
     private Boolean recordStats;
     private Integer activeParticipants; // Número real de participantes activos en el juego
     private Double averageTimePlayed; // Tiempo promedio de juego en minutos
+    private Double timePlayedP50; // Percentiles de duración de las sesiones cerradas, en minutos
+    private Double timePlayedP90;
+    private Double timePlayedP99;
+    
+    // Constructor usado por las consultas de proyección del repositorio (SELECT new GameDTO(...))
+    public GameDTO(Long id, String name, GameStatus status, Integer players, Date createdAt, Date lastUpdated,
+                   Long timeElapsed, Long creatorId, String gameType, Boolean isPublic, Boolean allowSpectators,
+                   Boolean enableChat, Boolean recordStats) {
+        this(id, name, status, players, createdAt, lastUpdated, timeElapsed,
+             creatorId != null ? creatorId.intValue() : null,
+             gameType, isPublic, allowSpectators, enableChat, recordStats, null, null, null, null, null);
+    }
+
+    // Copia independiente, para no modificar las instancias compartidas por la caché
+    public GameDTO copy() {
+        return new GameDTO(id, name, status, players, createdAt, lastUpdated, timeElapsed, userId, gameType,
+                isPublic, allowSpectators, enableChat, recordStats, activeParticipants, averageTimePlayed,
+                timePlayedP50, timePlayedP90, timePlayedP99);
+    }
     
     // Constructor para convertir de Game a GameDTO
     public static GameDTO fromGame(Game game) {
@@ -1,5 +1,7 @@
 package com.example.game_service_api.commons.dto;
 
+import com.example.events.ParticipationEvent;
+import com.example.game_service_api.commons.entities.GameParticipation;
 import lombok.*;
 import java.time.LocalDateTime;
 
@@ -17,4 +19,39 @@ public class GameParticipationDTO {
     private LocalDateTime leftAt;
     private Boolean isActive;
     private Integer timePlayedMinutes;
-}
\ No newline at end of file
+
+    // Constructor usado por el historial de un usuario (sin el email, que el cliente ya conoce)
+    public GameParticipationDTO(Long id, Long userId, Long gameId, String gameName, LocalDateTime joinedAt,
+                                LocalDateTime leftAt, Boolean isActive, Integer timePlayedMinutes) {
+        this(id, userId, null, gameId, gameName, joinedAt, leftAt, isActive, timePlayedMinutes);
+    }
+
+    // Requiere que el usuario y el juego de la participación estén cargados
+    public static GameParticipationDTO from(GameParticipation participation) {
+        GameParticipationDTO dto = new GameParticipationDTO();
+        dto.setId(participation.getId());
+        dto.setUserId(participation.getUser().getId());
+        dto.setUserEmail(participation.getUser().getEmail());
+        dto.setGameId(participation.getGame().getId());
+        dto.setGameName(participation.getGame().getName());
+        dto.setJoinedAt(participation.getJoinedAt());
+        dto.setLeftAt(participation.getLeftAt());
+        dto.setIsActive(participation.getIsActive());
+        dto.setTimePlayedMinutes(participation.getTimePlayedMinutes());
+        return dto;
+    }
+
+    // Participación tal como la describe un evento de entrada o salida
+    public static GameParticipationDTO from(ParticipationEvent event) {
+        return new GameParticipationDTO(
+                event.getParticipationId(),
+                event.getUserId(),
+                event.getUserEmail(),
+                event.getGameId(),
+                event.getGameName(),
+                event.getJoinedAt(),
+                event.getLeftAt(),
+                ParticipationEvent.JOINED.equals(event.getEventType()),
+                event.getTimePlayedMinutes());
+    }
+}
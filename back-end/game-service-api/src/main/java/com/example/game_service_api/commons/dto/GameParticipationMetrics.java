@@ -0,0 +1,9 @@
+package com.example.game_service_api.commons.dto;
+
+// Proyección con los contadores de participación de un juego (una fila por juego)
+public interface GameParticipationMetrics {
+    Long getGameId();
+    Long getActiveParticipants();
+    Long getTotalSessions();
+    Long getTotalMinutesPlayed();
+}
@@ -0,0 +1,15 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+// Entrada del ranking de juegos con más participantes activos en este momento
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameRankingDTO {
+    private Long gameId;
+    private String name;
+    private String gameType;
+    private Integer activeParticipants;
+}
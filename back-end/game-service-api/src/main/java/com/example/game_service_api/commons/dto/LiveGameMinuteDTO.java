@@ -0,0 +1,17 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+// Un minuto de las estadísticas en directo de un juego
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveGameMinuteDTO {
+    private Instant minute; // Inicio de la ventana
+    private Long sessionsStarted;
+    private Long sessionsEnded;
+    private Long minutesPlayed;
+}
@@ -0,0 +1,21 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// Estadísticas en directo de un juego, servidas desde los almacenes de Kafka Streams
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveGameStatsDTO {
+    private Long gameId;
+    private Long activePlayers;
+    private Integer windowMinutes; // Minutos hacia atrás que cubren los campos siguientes
+    private Long sessionsStarted;
+    private Double sessionsPerMinute;
+    private Long sessionsEnded;
+    private Double averageSessionMinutes; // Nulo si no ha terminado ninguna sesión en la ventana
+    private List<LiveGameMinuteDTO> minutes;
+}
@@ -0,0 +1,16 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Último latido guardado de una participación activa, lo haya recibido la réplica que sea
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationHeartbeat {
+    private Long userId;
+    private Long gameId;
+    private LocalDateTime lastHeartbeatAt;
+}
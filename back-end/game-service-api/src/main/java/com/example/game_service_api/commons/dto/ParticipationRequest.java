@@ -0,0 +1,13 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+// Par usuario/juego de una petición masiva de unión o salida de juegos
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticipationRequest {
+    private Long userId;
+    private Long gameId;
+}
@@ -0,0 +1,11 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+// Validadores HTTP (ETag y Last-Modified) de un recurso, calculados sin cargar las entidades
+@Getter
+@AllArgsConstructor
+public class ResourceVersion {
+    private String eTag;
+    private long lastModified;
+}
@@ -0,0 +1,17 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Resumen de la distribución de duración de sesiones de un juego, en minutos
+@Getter
+@AllArgsConstructor
+public class TimePlayedStats {
+    public static final TimePlayedStats EMPTY = new TimePlayedStats(0, 0.0, 0.0, 0.0, 0.0);
+
+    private final long sessions;
+    private final double mean;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+}
@@ -0,0 +1,21 @@
+package com.example.game_service_api.commons.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Estado de la reconstrucción de UserView desde user-events, publicado en el health de readiness
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserViewBootstrapProgress {
+    public enum State { DISABLED, RUNNING, COMPLETED }
+
+    private State state;
+    private long recordsRead;
+    private long recordsRemaining; // Hasta los offsets finales tomados al empezar
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String lastError;
+}
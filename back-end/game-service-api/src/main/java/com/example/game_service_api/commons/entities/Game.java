@@ -10,7 +10,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @ToString
 @Entity
-@Table(name = "games")
+@Table(name = "games", indexes = {
+        // Índices para la paginación keyset por (createdAt, id) con y sin filtros
+        @Index(name = "idx_games_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_games_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_games_game_type_created_at_id", columnList = "game_type, created_at, id"),
+        @Index(name = "idx_games_is_public_created_at_id", columnList = "is_public, created_at, id")
+})
 public class Game {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -37,8 +43,20 @@ private Long timeElapsed;
 
 @ManyToOne(fetch = FetchType.LAZY)
 @JoinColumn(name = "user_id")
+@ToString.Exclude // Evita que toString() fuerce la carga perezosa del creador
 private UserView creator;
 
+// Contadores de participación: los suma ParticipationCounterService con SQL propio, así que la entidad
+// nunca los actualiza (guardar un juego no pisa lo volcado mientras tanto). Un juego nuevo empieza a cero
+@Column(name = "active_participants_count", updatable = false)
+private Integer activeParticipantsCount = 0;
+
+@Column(name = "total_sessions", updatable = false)
+private Long totalSessions = 0L;
+
+@Column(name = "total_minutes_played", updatable = false)
+private Long totalMinutesPlayed = 0L;
+
 @Transient // Este campo no se persiste en la base de datos
 private Integer activeParticipants;
 
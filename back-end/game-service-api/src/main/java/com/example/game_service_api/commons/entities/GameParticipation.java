@@ -12,8 +12,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "game_participations")
 public class GameParticipation {
+    // Lo asigna el INSERT nativo con nextval('game_participations_seq'), de uno en uno (ver GameParticipationRepositoryImpl)
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,4 +35,8 @@ public class GameParticipation {
     
     @Column(name = "time_played_minutes")
     private Integer timePlayedMinutes;
+
+    // Último latido recibido en cualquier réplica (ver SessionExpiryServiceImpl)
+    @Column(name = "last_heartbeat_at")
+    private LocalDateTime lastHeartbeatAt;
 }
\ No newline at end of file
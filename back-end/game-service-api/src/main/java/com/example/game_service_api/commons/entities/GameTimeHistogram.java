@@ -0,0 +1,25 @@
+package com.example.game_service_api.commons.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+// Instantánea serializada del histograma de duración de sesiones de un juego (ver SessionLengthHistogram)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "game_time_histograms")
+public class GameTimeHistogram {
+    @Id
+    @Column(name = "game_id")
+    private Long gameId;
+
+    @Column(name = "histogram", nullable = false)
+    private byte[] histogram;
+
+    @Column(name = "updated_at")
+    private Date updatedAt;
+}
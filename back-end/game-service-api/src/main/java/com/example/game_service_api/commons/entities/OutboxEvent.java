@@ -0,0 +1,48 @@
+package com.example.game_service_api.commons.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+// Evento pendiente de publicar en Kafka, guardado en la misma transacción que el cambio que lo origina
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "event_key")
+    private String eventKey;
+
+    // Evento ya codificado con EventCodec, tal como se enviará al topic
+    @Column(name = "payload", nullable = false, columnDefinition = "bytea")
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Se rellena cuando el evento agota sus intentos: queda apartado del relay hasta que alguien lo revise
+    @Column(name = "failed_at")
+    private Date failedAt;
+
+    public OutboxEvent(String topic, String eventKey, byte[] payload) {
+        this(null, topic, eventKey, payload, new Date(), 0, null, null);
+    }
+}
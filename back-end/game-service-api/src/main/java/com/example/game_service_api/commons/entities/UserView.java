@@ -32,6 +32,10 @@ public class UserView {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
     
+    // Marca de tiempo del último evento de user-events aplicado: un reintento más antiguo no la pisa
+    @Column(name = "last_event_at")
+    private LocalDateTime lastEventAt;
+    
     // Mantener la relación con roles para ser consistente
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
@@ -0,0 +1,57 @@
+package com.example.game_service_api.commons.utils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ventana acotada para descartar eventos Kafka ya procesados por un listener.
+ *
+ * Dos comprobaciones baratas, en este orden:
+ * - Marca de agua por partición: el offset más alto procesado. Una reentrega tras un rebalanceo o un fallo
+ *   de commit trae offsets que no la superan y se descarta sin mirar el contenido.
+ * - LRU de ids de evento con capacidad fija: cubre los duplicados con offset nuevo (reenvíos del productor
+ *   o del outbox, el mismo evento publicado dos veces...). Los más antiguos se olvidan al llenarse.
+ *
+ * Solo se marca lo que se ha procesado con éxito, así que un evento que falla y se reintenta no se descarta.
+ */
+public class EventDeduplicator {
+    private final Map<String, Long> watermarks = new HashMap<>();
+    private final LinkedHashMap<UUID, Boolean> recentIds;
+
+    public EventDeduplicator(int capacity) {
+        this.recentIds = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized boolean isDuplicate(String topic, int partition, long offset, UUID eventId) {
+        Long watermark = watermarks.get(partitionKey(topic, partition));
+        if (watermark != null && offset <= watermark) {
+            return true;
+        }
+        // get() en un LinkedHashMap por orden de acceso refresca la entrada, como debe hacer un LRU
+        return eventId != null && recentIds.get(eventId) != null;
+    }
+
+    public synchronized void markProcessed(String topic, int partition, long offset, UUID eventId) {
+        watermarks.merge(partitionKey(topic, partition), offset, Math::max);
+        if (eventId != null) {
+            recentIds.put(eventId, Boolean.TRUE);
+        }
+    }
+
+    // Para eventos que se aplican por más de un camino (el hilo que los produce y su listener) sin offset propio:
+    // registra el id y devuelve true solo la primera vez
+    public synchronized boolean markIfAbsent(UUID eventId) {
+        return recentIds.putIfAbsent(eventId, Boolean.TRUE) == null;
+    }
+
+    private static String partitionKey(String topic, int partition) {
+        return topic + "-" + partition;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.game_service_api.commons.utils;
+
+/**
+ * Huellas de estado en memoria para los ETag. Dependen solo de los valores, no del orden ni del momento en que se
+ * aplicaron los cambios: dos réplicas con el mismo estado calculan la misma huella.
+ */
+public final class Fingerprints {
+
+    private Fingerprints() {
+    }
+
+    // Finalizador de SplitMix64: valores consecutivos dan huellas sin relación entre sí
+    public static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Huella de un par de valores; distinta si se intercambian
+    public static long mix(long first, long second) {
+        return mix(mix(first) + second);
+    }
+}
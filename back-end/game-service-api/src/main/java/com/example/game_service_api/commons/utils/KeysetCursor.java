@@ -0,0 +1,40 @@
+package com.example.game_service_api.commons.utils;
+
+import com.example.game_service_api.commons.exceptions.GameException;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación keyset: guarda el valor de la columna de ordenación
+ * y el id de la última fila devuelta, codificados en Base64 URL-safe.
+ */
+@Getter
+public class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private final String sortValue;
+    private final Long id;
+
+    public KeysetCursor(String sortValue, Long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    public String encode() {
+        String raw = sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(raw.substring(0, separator), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new GameException(HttpStatus.BAD_REQUEST, "Cursor de paginación no válido");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.game_service_api.commons.utils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma compacto de duraciones de sesión (en minutos) con cubetas log-lineales, al estilo de HdrHistogram:
+ * los valores por debajo de 64 se guardan exactos y por encima cada potencia de dos se divide en 32 cubetas,
+ * con un error relativo máximo de ~3%. La disposición de las cubetas es fija, así que dos histogramas
+ * (por ejemplo, de réplicas distintas) se combinan sumando cubeta a cubeta.
+ */
+public class SessionLengthHistogram {
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int EXACT_LIMIT = 64; // Valores registrados sin pérdida de precisión
+    private static final int SUB_BUCKETS = 32; // Cubetas por potencia de dos a partir de EXACT_LIMIT
+    private static final int FIRST_EXPONENT = 6; // log2(EXACT_LIMIT)
+    private static final int MAX_EXPONENT = 23; // Hasta 2^24 minutos; los valores mayores se acumulan en la última cubeta
+    private static final int BUCKET_COUNT = EXACT_LIMIT + (MAX_EXPONENT - FIRST_EXPONENT + 1) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, MAX_VALUE));
+        counts.incrementAndGet(bucketIndex(clamped));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(clamped);
+    }
+
+    // Suma los recuentos de otro histograma a este
+    public SessionLengthHistogram add(SessionLengthHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalValue.addAndGet(other.totalValue.get());
+        return this;
+    }
+
+    public SessionLengthHistogram copy() {
+        return new SessionLengthHistogram().add(this);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public boolean isEmpty() {
+        return totalCount.get() == 0;
+    }
+
+    public double getMean() {
+        long count = totalCount.get();
+        return count > 0 ? (double) totalValue.get() / count : 0.0;
+    }
+
+    // Valor (punto medio de la cubeta) por debajo del cual queda el percentil indicado, entre 0 y 100
+    public double valueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0.0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100.0) / 100.0));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= target) {
+                return bucketMidpoint(i);
+            }
+        }
+        return bucketMidpoint(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Formato: versión, total de valores, número de cubetas no vacías y pares (índice, recuento).
+     * Solo se guardan las cubetas con datos, así que un juego típico ocupa unas decenas de bytes.
+     */
+    public byte[] toBytes() {
+        int nonEmpty = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts.get(i) != 0) {
+                nonEmpty++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + nonEmpty * (Short.BYTES + Long.BYTES));
+        buffer.put(FORMAT_VERSION);
+        buffer.putLong(totalValue.get());
+        buffer.putInt(nonEmpty);
+        int written = 0;
+        for (int i = 0; i < BUCKET_COUNT && written < nonEmpty; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                buffer.putShort((short) i);
+                buffer.putLong(count);
+                written++;
+            }
+        }
+        return buffer.array();
+    }
+
+    public static SessionLengthHistogram fromBytes(byte[] bytes) {
+        SessionLengthHistogram histogram = new SessionLengthHistogram();
+        if (bytes == null || bytes.length == 0) {
+            return histogram;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Versión de histograma no soportada: " + version);
+        }
+        histogram.totalValue.set(buffer.getLong());
+        int nonEmpty = buffer.getInt();
+        long total = 0;
+        for (int i = 0; i < nonEmpty; i++) {
+            int index = buffer.getShort();
+            long count = buffer.getLong();
+            histogram.counts.set(index, count);
+            total += count;
+        }
+        histogram.totalCount.set(total);
+        return histogram;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - (FIRST_EXPONENT - 1);
+        int mantissa = (int) (value >>> shift); // Entre SUB_BUCKETS y 2 * SUB_BUCKETS - 1
+        return EXACT_LIMIT + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    private static double bucketMidpoint(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int offset = index - EXACT_LIMIT;
+        int exponent = FIRST_EXPONENT + offset / SUB_BUCKETS;
+        int shift = exponent - (FIRST_EXPONENT - 1);
+        long lowest = (long) (SUB_BUCKETS + offset % SUB_BUCKETS) << shift;
+        long width = 1L << shift;
+        return lowest + (width - 1) / 2.0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.game_service_api.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+// Habilita la caché de Spring; la caché "games" (Caffeine) se define en application.yaml y sus métricas se publican en Actuator
+public class CacheConfig {
+    // La anotación @EnableCaching permite el uso de @Cacheable y @CacheEvict
+}
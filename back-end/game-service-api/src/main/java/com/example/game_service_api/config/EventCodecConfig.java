@@ -0,0 +1,18 @@
+package com.example.game_service_api.config;
+
+import com.example.events.EventCodec;
+import com.example.events.EventEncoding;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+// Codificación de los eventos Kafka compartida con authservice (módulo back-end/event-schemas)
+public class EventCodecConfig {
+
+    @Bean
+    public EventCodec eventCodec(ObjectMapper objectMapper, @Value("${events.encoding:binary}") EventEncoding encoding) {
+        return new EventCodec(encoding, objectMapper);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.game_service_api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+
+@Configuration
+@EnableKafkaStreams
+// Habilita Kafka Streams; la configuración está en spring.kafka.streams y la topología en ParticipationStatsTopology
+public class KafkaStreamsConfig {
+    // La anotación @EnableKafkaStreams crea el StreamsBuilder y arranca/para el KafkaStreams con la aplicación
+}
@@ -0,0 +1,39 @@
+package com.example.game_service_api.config;
+
+import com.example.game_service_api.kafka.GameEventProducer;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+// Topics que declara este servicio; KafkaAdmin los crea al arrancar y ajusta la configuración de los existentes
+public class KafkaTopicConfig {
+
+    // user-events se compacta por clave (id de usuario): guarda el último estado de cada usuario
+    // y permite reconstruir UserView desde el principio (users.bootstrap.enabled). Particiones y réplicas
+    // se dejan por defecto del broker: añadir particiones a un topic existente cambiaría la partición de cada usuario
+    @Bean
+    public NewTopic userEventsTopic(@Value("${spring.kafka.topics.user-events}") String topic) {
+        return TopicBuilder.name(topic)
+                .compact()
+                .build();
+    }
+
+    // Entradas y salidas de partidas, con el id del juego como clave. Los dos topics deben tener las mismas
+    // particiones para que Kafka Streams procese los eventos de un juego en la misma tarea
+    @Bean
+    public NewTopic participationJoinedTopic(@Value("${participation.events.partitions:3}") int partitions) {
+        return TopicBuilder.name(GameEventProducer.PARTICIPATION_JOINED_TOPIC)
+                .partitions(partitions)
+                .build();
+    }
+
+    @Bean
+    public NewTopic participationLeftTopic(@Value("${participation.events.partitions:3}") int partitions) {
+        return TopicBuilder.name(GameEventProducer.PARTICIPATION_LEFT_TOPIC)
+                .partitions(partitions)
+                .build();
+    }
+}
@@ -25,7 +25,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD")
                 .allowedHeaders("*")
                 .allowCredentials(true)
-                .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials")
+                .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials", "ETag", "Last-Modified")
                 .maxAge(3600);
     }
     
@@ -45,6 +45,10 @@ public class WebConfig implements WebMvcConfigurer {
         config.addAllowedHeader("*");
         config.setAllowCredentials(true);
         
+        // Exponer los validadores de caché para que el panel pueda hacer peticiones condicionales
+        config.addExposedHeader("ETag");
+        config.addExposedHeader("Last-Modified");
+        
         // Aplicar esta configuración a todos los endpoints
         source.registerCorsConfiguration("/**", config);
         
@@ -1,11 +1,16 @@
 package com.example.game_service_api.controller;
 
+import com.example.game_service_api.commons.dto.CursorPage;
 import com.example.game_service_api.commons.dto.GameCreateRequest;
 import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.GameRankingDTO;
 import com.example.game_service_api.commons.constans.ApiPathVariables;
 import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,7 +19,25 @@ import java.util.List;
 public interface GameApi {
    
    @GetMapping
-   ResponseEntity<List<GameDTO>> getAllGames();
+   ResponseEntity<List<GameDTO>> getAllGames(WebRequest webRequest);
+
+   @GetMapping("/page")
+   ResponseEntity<CursorPage<GameDTO>> getGamesPage(@RequestParam(required = false) GameStatus status,
+                                                    @RequestParam(required = false) String gameType,
+                                                    @RequestParam(required = false) Boolean isPublic,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") Integer limit);
+
+   @GetMapping("/top")
+   ResponseEntity<List<GameRankingDTO>> getTopGames(@RequestParam(defaultValue = "10") Integer limit);
+
+   @GetMapping("/search")
+   ResponseEntity<List<GameDTO>> searchGames(@RequestParam(required = false) String q,
+                                             @RequestParam(required = false) String gameType,
+                                             @RequestParam(defaultValue = "20") Integer limit);
+
+   @GetMapping(value = "/export", produces = "application/x-ndjson")
+   ResponseEntity<StreamingResponseBody> exportGames();
 
    @PostMapping
    ResponseEntity<GameDTO> saveGame(@RequestBody Game game);
@@ -24,7 +47,7 @@ public interface GameApi {
                                    @RequestHeader("userIdRequest") Integer userId);
    
    @GetMapping("/{id}")
-   ResponseEntity<GameDTO> getGameById(@PathVariable Long id);
+   ResponseEntity<GameDTO> getGameById(@PathVariable Long id, WebRequest webRequest);
    
    @PutMapping("/{id}")
    ResponseEntity<GameDTO> updateGameById(@PathVariable Long id, @RequestBody Game gameRequest);
@@ -1,9 +1,15 @@
 package com.example.game_service_api.controller;
 
+import com.example.game_service_api.commons.dto.CursorPage;
+import com.example.game_service_api.commons.dto.DailyPlaytimeStatsDTO;
 import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.commons.dto.LiveGameStatsDTO;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface GameParticipationApi {
@@ -13,9 +19,39 @@ public interface GameParticipationApi {
     @PostMapping("/leave/{gameId}")
     ResponseEntity<GameParticipationDTO> leaveGame(@PathVariable Long gameId, @RequestHeader("X-User-ID") Long userId);
     
+    @PostMapping("/heartbeat/{gameId}")
+    ResponseEntity<Void> heartbeat(@PathVariable Long gameId, @RequestHeader("X-User-ID") Long userId);
+    
+    @PostMapping("/batch/join")
+    ResponseEntity<List<GameParticipationDTO>> joinGames(@RequestBody List<ParticipationRequest> requests);
+    
+    @PostMapping("/batch/leave")
+    ResponseEntity<List<GameParticipationDTO>> leaveGames(@RequestBody List<ParticipationRequest> requests);
+    
     @GetMapping("/game/{gameId}")
     ResponseEntity<List<GameParticipationDTO>> getGameParticipants(@PathVariable Long gameId);
     
+    @GetMapping("/user/{userId}")
+    ResponseEntity<CursorPage<GameParticipationDTO>> getUserHistory(@PathVariable Long userId,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "20") Integer limit);
+    
+    @GetMapping("/stats/daily")
+    ResponseEntity<List<DailyPlaytimeStatsDTO>> getDailyStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                              @RequestParam(required = false) Long gameId,
+                                                              @RequestParam(required = false) String gameType,
+                                                              @RequestParam(defaultValue = "game") String groupBy);
+    
+    @GetMapping("/stats/live")
+    ResponseEntity<List<LiveGameStatsDTO>> getLiveStats(@RequestParam(defaultValue = "15") Integer minutes,
+                                                        @RequestParam(defaultValue = "false") Boolean local);
+    
+    @GetMapping("/stats/live/{gameId}")
+    ResponseEntity<LiveGameStatsDTO> getLiveGameStats(@PathVariable Long gameId,
+                                                      @RequestParam(defaultValue = "15") Integer minutes,
+                                                      @RequestParam(defaultValue = "false") Boolean local);
+    
     @GetMapping("/status/{gameId}/{userId}")
     ResponseEntity<Boolean> isUserParticipating(@PathVariable Long gameId, @PathVariable Long userId);
 }
\ No newline at end of file
@@ -1,36 +1,110 @@
 package com.example.game_service_api.controller.impl;
 
+import com.example.game_service_api.commons.dto.CursorPage;
 import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.GameRankingDTO;
+import com.example.game_service_api.commons.dto.ResourceVersion;
 import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.commons.exceptions.GameException;
 import com.example.game_service_api.controller.GameApi;
 import com.example.game_service_api.services.GameService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.example.game_service_api.commons.dto.GameCreateRequest;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 // Servicio para gestionar la lógica de negocio de los juegos, clase REST.
 public class GameController implements GameApi {
+    private static final Logger log = LoggerFactory.getLogger(GameController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final GameService gameService;
+    private final ObjectMapper objectMapper;
 
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, ObjectMapper objectMapper) {
         this.gameService = gameService;
+        this.objectMapper = objectMapper;
     }
     
     @Override
-    public ResponseEntity<List<GameDTO>> getAllGames() {
+    public ResponseEntity<List<GameDTO>> getAllGames(WebRequest webRequest) {
         try {
-            System.out.println("Fetching all games with metrics...");
-            List<Game> games = gameService.getAllGames();
-            List<GameDTO> gameDTOs = GameDTO.fromGames(games);
-            System.out.println("Successfully fetched " + games.size() + " games with metrics");
-            return ResponseEntity.ok(gameDTOs);
+            // Si el listado no ha cambiado se responde 304 sin cargar ninguna entidad
+            ResourceVersion version = gameService.getCatalogVersion();
+            if (webRequest.checkNotModified(version.getETag(), version.getLastModified())) {
+                return null;
+            }
+            List<GameDTO> gameDTOs = gameService.getAllGames();
+            return ResponseEntity.ok()
+                    .eTag(version.getETag())
+                    .lastModified(version.getLastModified())
+                    .body(gameDTOs);
         } catch (Exception e) {
-            System.err.println("Error fetching games: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error al obtener el listado de juegos", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // Endpoint para obtener los juegos con más participantes activos en este momento (servido desde memoria)
+    @Override
+    public ResponseEntity<List<GameRankingDTO>> getTopGames(Integer limit) {
+        return ResponseEntity.ok(gameService.getTopGames(limit));
+    }
+
+    // Endpoint para buscar juegos por nombre (prefijo o subcadena) y filtrar por tipo de juego
+    @Override
+    public ResponseEntity<List<GameDTO>> searchGames(String q, String gameType, Integer limit) {
+        try {
+            return ResponseEntity.ok(gameService.searchGames(q, gameType, limit));
+        } catch (GameException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error al buscar juegos (q={}, gameType={})", q, gameType, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Endpoint para exportar todos los juegos como NDJSON (un GameDTO por línea) sin cargarlos en memoria
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportGames() {
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream out = new BufferedOutputStream(outputStream);
+            gameService.exportGames(game -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(game));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    // Endpoint para obtener los juegos paginados por cursor y filtrados por estado, tipo y visibilidad
+    @Override
+    public ResponseEntity<CursorPage<GameDTO>> getGamesPage(GameStatus status, String gameType, Boolean isPublic,
+                                                            String cursor, Integer limit) {
+        try {
+            return ResponseEntity.ok(gameService.getGamesPage(status, gameType, isPublic, cursor, limit));
+        } catch (GameException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error al obtener la página de juegos (status={}, gameType={}, isPublic={})", status, gameType, isPublic, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -63,10 +137,20 @@ public class GameController implements GameApi {
     
     // Endpoint para obtener un juego por su ID
     @Override
-    public ResponseEntity<GameDTO> getGameById(Long id) {
+    public ResponseEntity<GameDTO> getGameById(Long id, WebRequest webRequest) {
         try {
-            Game game = this.gameService.getGameById(id);
-            return ResponseEntity.ok(GameDTO.fromGame(game));
+            ResourceVersion version = this.gameService.getGameVersion(id);
+            if (version != null && webRequest.checkNotModified(version.getETag(), version.getLastModified())) {
+                return null;
+            }
+            GameDTO game = this.gameService.getGameById(id);
+            if (version == null) {
+                return ResponseEntity.ok(game);
+            }
+            return ResponseEntity.ok()
+                    .eTag(version.getETag())
+                    .lastModified(version.getLastModified())
+                    .body(game);
         } catch (Exception e) {
             System.err.println("Error getting game by id: " + e.getMessage());
             e.printStackTrace();
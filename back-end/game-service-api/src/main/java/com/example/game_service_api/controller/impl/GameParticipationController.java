@@ -1,14 +1,21 @@
 package com.example.game_service_api.controller.impl;
 
+import com.example.game_service_api.commons.dto.CursorPage;
+import com.example.game_service_api.commons.dto.DailyPlaytimeStatsDTO;
 import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.commons.dto.LiveGameStatsDTO;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
 import com.example.game_service_api.commons.entities.GameParticipation;
 import com.example.game_service_api.controller.GameParticipationApi;
 import com.example.game_service_api.services.GameParticipationService;
+import com.example.game_service_api.services.LiveGameStatsService;
+import com.example.game_service_api.services.ParticipationRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,44 +26,74 @@ public class GameParticipationController implements GameParticipationApi {
     @Autowired
     private GameParticipationService participationService;
 
+    @Autowired
+    private ParticipationRollupService rollupService;
+
+    @Autowired
+    private LiveGameStatsService liveStatsService;
+
     @Override
     public ResponseEntity<GameParticipationDTO> joinGame(Long gameId, Long userId) {
         GameParticipation participation = participationService.joinGame(userId, gameId);
-        return ResponseEntity.ok(mapToDTO(participation));
+        return ResponseEntity.ok(GameParticipationDTO.from(participation));
     }
 
     @Override
     public ResponseEntity<GameParticipationDTO> leaveGame(Long gameId, Long userId) {
         GameParticipation participation = participationService.leaveGame(userId, gameId);
-        return ResponseEntity.ok(mapToDTO(participation));
+        return ResponseEntity.ok(GameParticipationDTO.from(participation));
+    }
+
+    @Override
+    public ResponseEntity<Void> heartbeat(Long gameId, Long userId) {
+        participationService.heartbeat(userId, gameId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Override
+    public ResponseEntity<List<GameParticipationDTO>> joinGames(List<ParticipationRequest> requests) {
+        List<GameParticipation> participations = participationService.joinGames(requests);
+        return ResponseEntity.ok(participations.stream().map(GameParticipationDTO::from).collect(Collectors.toList()));
+    }
+
+    @Override
+    public ResponseEntity<List<GameParticipationDTO>> leaveGames(List<ParticipationRequest> requests) {
+        List<GameParticipation> participations = participationService.leaveGames(requests);
+        return ResponseEntity.ok(participations.stream().map(GameParticipationDTO::from).collect(Collectors.toList()));
     }
 
     @Override
     public ResponseEntity<List<GameParticipationDTO>> getGameParticipants(Long gameId) {
-        List<GameParticipation> participants = participationService.getGameParticipants(gameId);
-        List<GameParticipationDTO> dtos = participants.stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(participationService.getGameParticipants(gameId));
+    }
+
+    @Override
+    public ResponseEntity<CursorPage<GameParticipationDTO>> getUserHistory(Long userId, String cursor, Integer limit) {
+        return ResponseEntity.ok(participationService.getUserHistory(userId, cursor, limit));
+    }
+
+    // Lee solo de game_daily_stats; por defecto, los últimos 30 días
+    @Override
+    public ResponseEntity<List<DailyPlaytimeStatsDTO>> getDailyStats(LocalDate from, LocalDate to, Long gameId,
+                                                                     String gameType, String groupBy) {
+        LocalDate until = to != null ? to : LocalDate.now();
+        LocalDate since = from != null ? from : until.minusDays(30);
+        return ResponseEntity.ok(rollupService.getDailyStats(since, until, gameId, gameType, groupBy));
+    }
+
+    // Se leen de los almacenes de Kafka Streams; local=true lo usan las réplicas entre sí para no reenviar en bucle
+    @Override
+    public ResponseEntity<List<LiveGameStatsDTO>> getLiveStats(Integer minutes, Boolean local) {
+        return ResponseEntity.ok(liveStatsService.getAllGameStats(minutes, local));
+    }
+
+    @Override
+    public ResponseEntity<LiveGameStatsDTO> getLiveGameStats(Long gameId, Integer minutes, Boolean local) {
+        return ResponseEntity.ok(liveStatsService.getGameStats(gameId, minutes, local));
     }
 
     @Override
     public ResponseEntity<Boolean> isUserParticipating(Long gameId, Long userId) {
-        GameParticipation participation = participationService.getParticipation(userId, gameId);
-        return ResponseEntity.ok(participation != null);
-    }
-
-    private GameParticipationDTO mapToDTO(GameParticipation participation) {
-        GameParticipationDTO dto = new GameParticipationDTO();
-        dto.setId(participation.getId());
-        dto.setUserId(participation.getUser().getId());
-        dto.setUserEmail(participation.getUser().getEmail());
-        dto.setGameId(participation.getGame().getId());
-        dto.setGameName(participation.getGame().getName());
-        dto.setJoinedAt(participation.getJoinedAt());
-        dto.setLeftAt(participation.getLeftAt());
-        dto.setIsActive(participation.getIsActive());
-        dto.setTimePlayedMinutes(participation.getTimePlayedMinutes());
-        return dto;
+        return ResponseEntity.ok(participationService.getParticipation(userId, gameId) != null);
     }
 }
\ No newline at end of file
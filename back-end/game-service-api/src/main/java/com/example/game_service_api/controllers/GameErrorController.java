@@ -1,11 +1,11 @@
 package com.example.game_service_api.controllers;
 
-import com.example.game_service_api.commons.entities.Game;
+import com.example.events.GameErrorEvent;
+import com.example.game_service_api.commons.dto.GameDTO;
 import com.example.game_service_api.commons.entities.UserView;
-import com.example.game_service_api.kafka.GameErrorEvent;
 import com.example.game_service_api.kafka.GameEventProducer;
-import com.example.game_service_api.repositories.GameRepository;
 import com.example.game_service_api.repositories.UserViewRepository;
+import com.example.game_service_api.services.GameCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,16 +22,16 @@ import java.util.Optional;
  */
 public class GameErrorController {
 
-    private final GameRepository gameRepository;
+    private final GameCacheService gameCacheService;
     private final UserViewRepository userViewRepository;
     private final GameEventProducer gameEventProducer;
 
     @Autowired
     public GameErrorController(
-            GameRepository gameRepository,
+            GameCacheService gameCacheService,
             UserViewRepository userViewRepository,
             GameEventProducer gameEventProducer) {
-        this.gameRepository = gameRepository;
+        this.gameCacheService = gameCacheService;
         this.userViewRepository = userViewRepository;
         this.gameEventProducer = gameEventProducer;
     }
@@ -43,13 +43,11 @@ public class GameErrorController {
             @RequestHeader("X-User-ID") Long userId) {
 
         // Buscar el juego
-        Optional<Game> gameOpt = gameRepository.findById(gameId);
-        if (gameOpt.isEmpty()) {
+        GameDTO game = gameCacheService.findById(gameId);
+        if (game == null) {
             return ResponseEntity.notFound().build();
         }
         
-        Game game = gameOpt.get();
-        
         // Obtener el usuario que reporta
         Optional<UserView> userOpt = userViewRepository.findById(userId);
         
@@ -74,7 +72,9 @@ public class GameErrorController {
                 reporterUserId,
                 reporterUserName,
                 errorDetails.getOrDefault("description", "Sin descripción"),
-                LocalDateTime.now()
+                LocalDateTime.now(),
+                null,
+                null
         );
         
         // Enviar evento a Kafka
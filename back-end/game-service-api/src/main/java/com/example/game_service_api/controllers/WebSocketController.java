@@ -1,5 +1,10 @@
 package com.example.game_service_api.controllers;
 
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.exceptions.GameException;
+import com.example.game_service_api.services.GameParticipationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
@@ -19,12 +24,27 @@ import java.util.Map;
 @Controller
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:8083"})
 public class WebSocketController {
+    private static final Logger log = LoggerFactory.getLogger(WebSocketController.class);
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final GameParticipationService participationService;
 
     @Autowired
-    public WebSocketController(SimpMessagingTemplate messagingTemplate) {
+    public WebSocketController(SimpMessagingTemplate messagingTemplate, GameParticipationService participationService) {
         this.messagingTemplate = messagingTemplate;
+        this.participationService = participationService;
+    }
+
+    /**
+     * Latido de una participación enviado por STOMP, alternativa al endpoint REST para clientes ya conectados
+     */
+    @MessageMapping("/participations/heartbeat")
+    public void participationHeartbeat(ParticipationRequest request) {
+        try {
+            participationService.heartbeat(request.getUserId(), request.getGameId());
+        } catch (GameException e) {
+            log.debug("Latido rechazado para userId={}, gameId={}: {}", request.getUserId(), request.getGameId(), e.getMessage());
+        }
     }
 
     /**
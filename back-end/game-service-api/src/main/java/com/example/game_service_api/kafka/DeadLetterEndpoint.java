@@ -0,0 +1,239 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.EventCodec;
+import com.example.events.EventSchema;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Endpoint de Actuator para los dead-letter topics (*-dlt) de los listeners con reintentos.
+ *
+ * GET  /actuator/deadletters           registros pendientes de cada DLT
+ * GET  /actuator/deadletters/{topic}   primeros registros pendientes, con la excepción y el evento decodificado
+ * POST /actuator/deadletters/{topic}   reenvía hasta "limit" registros a su topic original
+ *
+ * "Pendiente" significa posterior al último reenvío: los offsets reenviados se confirman en el grupo
+ * dead-letter-replay, así que un mismo registro no se reenvía dos veces.
+ */
+@Component
+@Endpoint(id = "deadletters")
+public class DeadLetterEndpoint {
+    private static final String DLT_SUFFIX = "-dlt";
+    private static final String REPLAY_GROUP = "dead-letter-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final KafkaAdmin kafkaAdmin;
+    private final EventCodec eventCodec;
+
+    @Autowired
+    public DeadLetterEndpoint(
+            ConsumerFactory<String, byte[]> consumerFactory,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            KafkaAdmin kafkaAdmin,
+            EventCodec eventCodec) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.kafkaAdmin = kafkaAdmin;
+        this.eventCodec = eventCodec;
+    }
+
+    @ReadOperation
+    public Map<String, Long> pending() throws Exception {
+        Map<String, Long> pending = new TreeMap<>();
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            for (String topic : deadLetterTopics()) {
+                List<TopicPartition> partitions = partitionsOf(consumer, topic);
+                Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+                Map<TopicPartition, Long> startOffsets = replayStartOffsets(consumer, partitions);
+                long count = 0;
+                for (TopicPartition partition : partitions) {
+                    count += endOffsets.get(partition) - startOffsets.get(partition);
+                }
+                pending.put(topic, count);
+            }
+        }
+        return pending;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> records(@Selector String topic, @Nullable Integer limit) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            for (ConsumerRecord<String, byte[]> record : readPending(consumer, requireDeadLetterTopic(topic), limitOrDefault(limit))) {
+                result.add(describe(record));
+            }
+        }
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Selector String topic, @Nullable Integer limit) throws Exception {
+        Map<String, Integer> replayed = new TreeMap<>();
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            List<ConsumerRecord<String, byte[]>> records = readPending(consumer, requireDeadLetterTopic(topic), limitOrDefault(limit));
+
+            // Se envían todos y después se espera a las confirmaciones, como en el relay del outbox
+            List<CompletableFuture<?>> sends = new ArrayList<>(records.size());
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            for (ConsumerRecord<String, byte[]> record : records) {
+                String originalTopic = originalTopic(record);
+                sends.add(kafkaTemplate.send(new ProducerRecord<>(originalTopic, record.key(), record.value())));
+                replayed.merge(originalTopic, 1, Integer::sum);
+                offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
+            }
+            kafkaTemplate.flush();
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("deadLetterTopic", topic);
+        result.put("replayed", replayed);
+        return result;
+    }
+
+    private Consumer<String, byte[]> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return consumerFactory.createConsumer(REPLAY_GROUP, "dead-letter-endpoint", null, overrides);
+    }
+
+    private List<String> deadLetterTopics() throws Exception {
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            return admin.listTopics().names().get(10, TimeUnit.SECONDS).stream()
+                    .filter(name -> name.endsWith(DLT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private String requireDeadLetterTopic(String topic) {
+        if (!topic.endsWith(DLT_SUFFIX)) {
+            throw new IllegalArgumentException("No es un dead-letter topic: " + topic);
+        }
+        return topic;
+    }
+
+    private static int limitOrDefault(Integer limit) {
+        return limit != null && limit > 0 ? Math.min(limit, 10_000) : DEFAULT_LIMIT;
+    }
+
+    private static List<TopicPartition> partitionsOf(Consumer<String, byte[]> consumer, String topic) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        consumer.partitionsFor(topic).forEach(info -> partitions.add(new TopicPartition(topic, info.partition())));
+        return partitions;
+    }
+
+    // Primer offset pendiente de cada partición: el confirmado por el último reenvío o, si no hay, el inicio del topic
+    private static Map<TopicPartition, Long> replayStartOffsets(Consumer<String, byte[]> consumer, List<TopicPartition> partitions) {
+        Map<TopicPartition, Long> start = new HashMap<>(consumer.beginningOffsets(partitions));
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+        committed.forEach((partition, offset) -> {
+            if (offset != null) {
+                start.merge(partition, offset.offset(), Math::max);
+            }
+        });
+        return start;
+    }
+
+    private static List<ConsumerRecord<String, byte[]>> readPending(Consumer<String, byte[]> consumer, String topic, int limit) {
+        List<TopicPartition> partitions = partitionsOf(consumer, topic);
+        consumer.assign(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+        replayStartOffsets(consumer, partitions).forEach(consumer::seek);
+
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        while (records.size() < limit && hasPending(consumer, endOffsets)) {
+            for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                if (records.size() >= limit) {
+                    break;
+                }
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static boolean hasPending(Consumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream().anyMatch(entry -> consumer.position(entry.getKey()) < entry.getValue());
+    }
+
+    private Map<String, Object> describe(ConsumerRecord<String, byte[]> record) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("partition", record.partition());
+        description.put("offset", record.offset());
+        description.put("timestamp", Instant.ofEpochMilli(record.timestamp()).toString());
+        description.put("key", record.key());
+        description.put("originalTopic", originalTopic(record));
+        description.put("exception", header(record, KafkaHeaders.DLT_EXCEPTION_FQCN));
+        description.put("exceptionMessage", header(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        description.put("event", decode(record));
+        return description;
+    }
+
+    // El topic de origen lo añade el DeadLetterPublishingRecoverer; si falta se deduce del nombre del DLT
+    private static String originalTopic(ConsumerRecord<String, byte[]> record) {
+        String original = header(record, KafkaHeaders.DLT_ORIGINAL_TOPIC);
+        return original != null ? original : record.topic().substring(0, record.topic().length() - DLT_SUFFIX.length());
+    }
+
+    private static String header(ConsumerRecord<String, byte[]> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    // Evento decodificado si el topic tiene esquema conocido; si no, o si es ilegible, sus bytes en Base64
+    private Object decode(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            return null;
+        }
+        String topic = originalTopic(record);
+        for (EventSchema schema : EventSchema.values()) {
+            if (schema.getTopics().stream().anyMatch(topic::startsWith)) {
+                try {
+                    return eventCodec.decode(record.value(), schema.getEventType());
+                } catch (RuntimeException e) {
+                    break;
+                }
+            }
+        }
+        return Base64.getEncoder().encodeToString(record.value());
+    }
+}
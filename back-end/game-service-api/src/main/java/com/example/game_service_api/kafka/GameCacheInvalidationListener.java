@@ -0,0 +1,56 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.EventCodec;
+import com.example.events.GameEvent;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.services.GameCacheService;
+import com.example.game_service_api.services.GameRankingService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Este componente invalida la caché local de juegos cuando cualquier réplica crea o modifica un juego,
+ * y lleva el cambio al ranking en memoria para que un juego cancelado en otra réplica deje de aparecer.
+ * Cada réplica usa su propio grupo de consumidores para recibir todos los eventos; el grupo es estable por
+ * instancia (kafka.instance-id), así que un reinicio no deja grupos huérfanos en el broker.
+ */
+@Component
+public class GameCacheInvalidationListener {
+    private static final Logger log = LoggerFactory.getLogger(GameCacheInvalidationListener.class);
+
+    private final GameCacheService gameCacheService;
+    private final GameRankingService gameRankingService;
+    private final EventCodec eventCodec;
+
+    @Autowired
+    public GameCacheInvalidationListener(
+            GameCacheService gameCacheService,
+            GameRankingService gameRankingService,
+            EventCodec eventCodec) {
+        this.gameCacheService = gameCacheService;
+        this.gameRankingService = gameRankingService;
+        this.eventCodec = eventCodec;
+    }
+
+    @KafkaListener(
+            topics = {"event.game-created", "event.game-status-changed"},
+            groupId = "game-cache-${kafka.instance-id}",
+            properties = {"auto.offset.reset=latest"})
+    public void invalidateGame(ConsumerRecord<String, byte[]> record) {
+        try {
+            // La clave del mensaje es el id del juego
+            Long gameId = Long.valueOf(record.key());
+            gameCacheService.evict(gameId);
+            // Los eventos de un juego comparten partición: el último aplicado es el estado vigente
+            GameEvent event = eventCodec.decode(record.value(), GameEvent.class);
+            GameStatus status = event.getStatus() != null ? GameStatus.valueOf(event.getStatus()) : null;
+            gameRankingService.onGameChanged(gameId, event.getName(), event.getGameType(), status);
+        } catch (Exception e) {
+            log.error("Error al invalidar la caché del juego {}: {}", record.key(), e.getMessage(), e);
+        }
+    }
+}
@@ -1,23 +1,35 @@
 package com.example.game_service_api.kafka;
 
-import com.example.game_service_api.commons.entities.Game;
+import com.example.events.EventCodec;
+import com.example.events.GameErrorEvent;
+import com.example.game_service_api.commons.dto.GameDTO;
 import com.example.game_service_api.commons.entities.UserView;
-import com.example.game_service_api.repositories.GameRepository;
+import com.example.game_service_api.commons.utils.EventDeduplicator;
 import com.example.game_service_api.repositories.UserViewRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.game_service_api.services.GameCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -28,83 +40,103 @@ public class GameErrorListener {
     private static final Logger log = LoggerFactory.getLogger(GameErrorListener.class);
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
-    private final GameRepository gameRepository;
+    private final GameCacheService gameCacheService;
     private final UserViewRepository userViewRepository;
-    private final ObjectMapper objectMapper;
+    private final EventCodec eventCodec;
     private final SimpMessagingTemplate messagingTemplate;
+    private final EventDeduplicator deduplicator;
+    private final Counter duplicates;
     
     @Autowired
     public GameErrorListener(
-            GameRepository gameRepository,
+            GameCacheService gameCacheService,
             UserViewRepository userViewRepository,
-            ObjectMapper objectMapper,
-            SimpMessagingTemplate messagingTemplate) {
-        this.gameRepository = gameRepository;
+            EventCodec eventCodec,
+            SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.dedup.capacity:100000}") int dedupCapacity) {
+        this.gameCacheService = gameCacheService;
         this.userViewRepository = userViewRepository;
-        this.objectMapper = objectMapper;
+        this.eventCodec = eventCodec;
         this.messagingTemplate = messagingTemplate;
+        // Compartido por el topic principal y sus topics de reintento, que usan este mismo bean
+        this.deduplicator = new EventDeduplicator(dedupCapacity);
+        this.duplicates = Counter.builder("kafka.events.duplicates").tag("listener", "gameErrorListener").register(meterRegistry);
     }
     
+    // Los fallos se reintentan en event.game-error-reported-retry-0, -1... con espera exponencial, sin frenar la partición;
+    // agotados los intentos, o si el mensaje es ilegible, el registro pasa a event.game-error-reported-dlt
+    @RetryableTopic(
+            attempts = "${kafka.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${kafka.retry.delay:1000}",
+                    multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.retry.max-delay:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            exclude = {IllegalArgumentException.class, UncheckedIOException.class},
+            traversingCauses = "true")
     @KafkaListener(topics = "event.game-error-reported", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeGameErrorEvent(String message) {
-        try {
-            GameErrorEvent event = objectMapper.readValue(message, GameErrorEvent.class);
-            log.info("Recibido reporte de error de juego: Game ID={}, Reportado por={}", 
-                    event.getGameId(), event.getReportedByUserName());
-            
-            processGameErrorEvent(event);
-        } catch (Exception e) {
-            log.error("Error al procesar evento de error de juego: {}", e.getMessage(), e);
+    public void consumeGameErrorEvent(ConsumerRecord<String, byte[]> record) {
+        GameErrorEvent event = eventCodec.decode(record.value(), GameErrorEvent.class);
+        // Una reentrega no debe volver a avisar a los administradores
+        if (deduplicator.isDuplicate(record.topic(), record.partition(), record.offset(), event.getEventId())) {
+            duplicates.increment();
+            return;
         }
+        log.info("Recibido reporte de error de juego: Game ID={}, Reportado por={}", 
+                event.getGameId(), event.getReportedByUserName());
+        
+        processGameErrorEvent(event);
+        deduplicator.markProcessed(record.topic(), record.partition(), record.offset(), event.getEventId());
+    }
+    
+    @DltHandler
+    public void onDeadLetter(ConsumerRecord<String, byte[]> record,
+                             @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        log.error("Reporte de error del juego {} movido a {} (offset {}): {}", record.key(), record.topic(), record.offset(), error);
     }
     
     private void processGameErrorEvent(GameErrorEvent event) {
         log.info("Procesando reporte de error para juego ID={}: {}", 
                 event.getGameId(), event.getErrorDescription());
         
-        try {
-            // Obtener información actualizada del juego
-            Optional<Game> gameOpt = gameRepository.findById(event.getGameId());
-            if (gameOpt.isEmpty()) {
-                log.error("No se encontró el juego ID={} para el reporte de error", event.getGameId());
-                return;
-            }
-            
-            Game game = gameOpt.get();
-            
-            // 1. Crear notificación para administradores con instrucciones claras
-            Map<String, Object> notification = new HashMap<>();
-            notification.put("type", "GAME_ERROR");
-            notification.put("gameId", event.getGameId());
-            notification.put("gameName", event.getGameName());
-            notification.put("gameStatus", game.getStatus().toString());
-            notification.put("reporter", event.getReportedByUserName());
-            notification.put("reporterId", event.getReportedByUserId());
-            notification.put("description", event.getErrorDescription());
-            notification.put("timestamp", event.getTimestamp().format(formatter));
-            
-            // Crear un mensaje claro con las acciones que debe tomar el administrador
-            String actionMessage = String.format(
-                    "¡ACCIÓN REQUERIDA! El usuario: %s ha reportado un problema con el juego: '%s'.\n" +
-                    "Estado actual: %s\n" +
-                    "Detalles: %s\n" +
-                    "Por favor, cambie el estado del juego a PAUSADO y revise el problema.",
-                    event.getReportedByUserName(),
-                    event.getGameName(),
-                    game.getStatus(),
-                    event.getErrorDescription().isEmpty() ? "No se proporcionaron detalles" : event.getErrorDescription());
-            
-            notification.put("message", actionMessage);
-            
-            // Enviar notificación a través de WebSocket
-            messagingTemplate.convertAndSend("/topic/admin/notifications", notification);
-            
-            // También enviar un mensaje a un tema específico para este juego
-            messagingTemplate.convertAndSend("/topic/games/" + event.getGameId() + "/errors", notification);
-            
-            log.info("Notificación de error enviada a los administradores para el juego: {}", event.getGameName());
-        } catch (Exception e) {
-            log.error("Error al enviar notificación de error de juego: {}", e.getMessage(), e);
+        // Obtener información actualizada del juego
+        GameDTO game = gameCacheService.findById(event.getGameId());
+        if (game == null) {
+            log.error("No se encontró el juego ID={} para el reporte de error", event.getGameId());
+            return;
         }
+        
+        // 1. Crear notificación para administradores con instrucciones claras
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "GAME_ERROR");
+        notification.put("gameId", event.getGameId());
+        notification.put("gameName", event.getGameName());
+        notification.put("gameStatus", game.getStatus().toString());
+        notification.put("reporter", event.getReportedByUserName());
+        notification.put("reporterId", event.getReportedByUserId());
+        notification.put("description", event.getErrorDescription());
+        notification.put("timestamp", event.getTimestamp().format(formatter));
+        
+        // Crear un mensaje claro con las acciones que debe tomar el administrador
+        String actionMessage = String.format(
+                "¡ACCIÓN REQUERIDA! El usuario: %s ha reportado un problema con el juego: '%s'.\n" +
+                "Estado actual: %s\n" +
+                "Detalles: %s\n" +
+                "Por favor, cambie el estado del juego a PAUSADO y revise el problema.",
+                event.getReportedByUserName(),
+                event.getGameName(),
+                game.getStatus(),
+                event.getErrorDescription().isEmpty() ? "No se proporcionaron detalles" : event.getErrorDescription());
+        
+        notification.put("message", actionMessage);
+        
+        // Enviar notificación a través de WebSocket
+        messagingTemplate.convertAndSend("/topic/admin/notifications", notification);
+        
+        // También enviar un mensaje a un tema específico para este juego
+        messagingTemplate.convertAndSend("/topic/games/" + event.getGameId() + "/errors", notification);
+        
+        log.info("Notificación de error enviada a los administradores para el juego: {}", event.getGameName());
     }
 } 
\ No newline at end of file
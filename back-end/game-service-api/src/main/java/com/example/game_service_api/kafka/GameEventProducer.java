@@ -1,48 +1,112 @@
 package com.example.game_service_api.kafka;
 
+import com.example.events.EventCodec;
+import com.example.events.GameErrorEvent;
+import com.example.events.GameEvent;
+import com.example.events.IdentifiedEvent;
+import com.example.events.ParticipationEvent;
 import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameParticipation;
+import com.example.game_service_api.commons.entities.OutboxEvent;
 import com.example.game_service_api.commons.dto.GameDTO;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.kafka.core.KafkaTemplate;
+import com.example.game_service_api.repositories.OutboxEventRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra los eventos de juego en la tabla outbox_events dentro de la transacción de quien llama.
+ * Si la transacción se deshace el evento desaparece con ella, y si se confirma el OutboxRelayService
+ * lo publicará en Kafka aunque el broker no esté disponible en ese momento.
+ * Los eventos se guardan ya codificados con EventCodec (binario o JSON según events.encoding).
+ */
 @Service
 public class GameEventProducer {
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    public static final String PARTICIPATION_JOINED_TOPIC = "event.participation-joined";
+    public static final String PARTICIPATION_LEFT_TOPIC = "event.participation-left";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventCodec eventCodec;
 
-    public GameEventProducer(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.objectMapper = objectMapper;
+    public GameEventProducer(OutboxEventRepository outboxEventRepository, EventCodec eventCodec) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventCodec = eventCodec;
     }
 
+    @Transactional
     public void sendGameCreatedEvent(Game game) {
-        try {
-            GameDTO gameDTO = GameDTO.fromGame(game);
-            String gameJson = objectMapper.writeValueAsString(gameDTO);
-            kafkaTemplate.send("event.game-created", game.getId().toString(), gameJson);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error al serializar el juego a JSON", e);
-        }
+        byte[] payload = encode(toGameEvent(GameDTO.fromGame(game)));
+        outboxEventRepository.save(new OutboxEvent("event.game-created", game.getId().toString(), payload));
     }
 
+    @Transactional
     public void sendGameStatusChangedEvent(Game game) {
-        try {
-            GameDTO gameDTO = GameDTO.fromGame(game);
-            String gameJson = objectMapper.writeValueAsString(gameDTO);
-            kafkaTemplate.send("event.game-status-changed", game.getId().toString(), gameJson);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error al serializar el juego a JSON", e);
-        }
+        byte[] payload = encode(toGameEvent(GameDTO.fromGame(game)));
+        outboxEventRepository.save(new OutboxEvent("event.game-status-changed", game.getId().toString(), payload));
     }
     
+    @Transactional
     public void sendGameErrorReportEvent(GameErrorEvent errorEvent) {
-        try {
-            String errorJson = objectMapper.writeValueAsString(errorEvent);
-            kafkaTemplate.send("event.game-error-reported", errorEvent.getGameId().toString(), errorJson);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error al serializar el evento de error a JSON", e);
+        byte[] payload = encode(errorEvent);
+        outboxEventRepository.save(new OutboxEvent("event.game-error-reported", errorEvent.getGameId().toString(), payload));
+    }
+
+    // Entradas y salidas de partidas, con el id del juego como clave para que los eventos de un juego vayan a la misma partición.
+    // Devuelve los eventos ya identificados para que quien llama los aplique en su réplica (ver GameParticipationServiceImpl)
+    @Transactional
+    public List<ParticipationEvent> sendParticipationJoinedEvents(List<GameParticipation> participations) {
+        return sendParticipationEvents(PARTICIPATION_JOINED_TOPIC, ParticipationEvent.JOINED, participations);
+    }
+
+    @Transactional
+    public List<ParticipationEvent> sendParticipationLeftEvents(List<GameParticipation> participations) {
+        return sendParticipationEvents(PARTICIPATION_LEFT_TOPIC, ParticipationEvent.LEFT, participations);
+    }
+
+    private List<ParticipationEvent> sendParticipationEvents(String topic, String eventType, List<GameParticipation> participations) {
+        if (participations.isEmpty()) {
+            return List.of();
         }
+        List<ParticipationEvent> events = new ArrayList<>(participations.size());
+        List<OutboxEvent> outboxEvents = new ArrayList<>(participations.size());
+        for (GameParticipation participation : participations) {
+            Long gameId = participation.getGame().getId();
+            ParticipationEvent event = new ParticipationEvent(eventType, participation.getId(), participation.getUser().getId(),
+                    gameId, participation.getJoinedAt(), participation.getLeftAt(), participation.getTimePlayedMinutes(), null, null,
+                    participation.getUser().getEmail(), participation.getGame().getName());
+            outboxEvents.add(new OutboxEvent(topic, gameId.toString(), encode(event)));
+            events.add(event);
+        }
+        // Las altas y bajas masivas se insertan en lotes JDBC (secuencia pooled)
+        outboxEventRepository.saveAll(outboxEvents);
+        return events;
+    }
+
+    // El id se asigna aquí y viaja en el payload del outbox: los reenvíos del relay conservan el mismo id
+    private byte[] encode(IdentifiedEvent event) {
+        event.assignIdentity();
+        return eventCodec.encode(event);
+    }
+
+    // Solo viajan los datos del juego; participantes y tiempos jugados se calculan en cada réplica
+    private static GameEvent toGameEvent(GameDTO game) {
+        return new GameEvent(
+                game.getId(),
+                game.getName(),
+                game.getStatus() != null ? game.getStatus().name() : null,
+                game.getPlayers(),
+                game.getCreatedAt() != null ? game.getCreatedAt().toInstant() : null,
+                game.getLastUpdated() != null ? game.getLastUpdated().toInstant() : null,
+                game.getTimeElapsed(),
+                game.getUserId(),
+                game.getGameType(),
+                game.getIsPublic(),
+                game.getAllowSpectators(),
+                game.getEnableChat(),
+                game.getRecordStats(),
+                null,
+                null);
     }
-}
\ No newline at end of file
+}
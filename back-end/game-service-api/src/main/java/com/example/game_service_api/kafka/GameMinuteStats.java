@@ -0,0 +1,50 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.ParticipationEvent;
+import lombok.*;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+
+import java.nio.ByteBuffer;
+
+// Agregado de un juego en una ventana de un minuto: sesiones empezadas, terminadas y minutos jugados de las terminadas
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class GameMinuteStats {
+    private static final int SIZE = 3 * Long.BYTES;
+
+    public static final Serde<GameMinuteStats> SERDE = Serdes.serdeFrom(
+            (topic, stats) -> stats == null ? null : ByteBuffer.allocate(SIZE)
+                    .putLong(stats.sessionsStarted)
+                    .putLong(stats.sessionsEnded)
+                    .putLong(stats.minutesPlayed)
+                    .array(),
+            (topic, bytes) -> {
+                if (bytes == null) {
+                    return null;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                return new GameMinuteStats(buffer.getLong(), buffer.getLong(), buffer.getLong());
+            });
+
+    private long sessionsStarted;
+    private long sessionsEnded;
+    private long minutesPlayed;
+
+    public static GameMinuteStats of(ParticipationEvent event) {
+        if (ParticipationEvent.JOINED.equals(event.getEventType())) {
+            return new GameMinuteStats(1, 0, 0);
+        }
+        int minutes = event.getTimePlayedMinutes() != null ? event.getTimePlayedMinutes() : 0;
+        return new GameMinuteStats(0, 1, minutes);
+    }
+
+    public GameMinuteStats merge(GameMinuteStats other) {
+        return new GameMinuteStats(sessionsStarted + other.sessionsStarted,
+                sessionsEnded + other.sessionsEnded,
+                minutesPlayed + other.minutesPlayed);
+    }
+}
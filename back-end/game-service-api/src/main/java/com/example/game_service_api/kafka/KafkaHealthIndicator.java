@@ -6,15 +6,16 @@ import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 @Component
 public class KafkaHealthIndicator implements HealthIndicator {
     
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
     
     @Autowired
-    public KafkaHealthIndicator(KafkaTemplate<String, String> kafkaTemplate) {
+    public KafkaHealthIndicator(KafkaTemplate<String, byte[]> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
     
@@ -22,7 +23,7 @@ public class KafkaHealthIndicator implements HealthIndicator {
     public Health health() {
         try {
             // Verificar que Kafka está funcionando
-            kafkaTemplate.send("health-check", "ping").get(1, TimeUnit.SECONDS);
+            kafkaTemplate.send("health-check", "ping".getBytes(StandardCharsets.UTF_8)).get(1, TimeUnit.SECONDS);
             return Health.up().build();
         } catch (Exception e) {
             return Health.down().withException(e).build();
@@ -0,0 +1,86 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.EventCodec;
+import com.example.events.ParticipationEvent;
+import com.example.game_service_api.services.GameParticipationService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Este componente aplica en esta réplica las entradas y salidas de partidas confirmadas en cualquier réplica:
+ * presencia, contadores, ranking y avisos por WebSocket a sus clientes (ver GameParticipationService).
+ * Cada réplica usa su propio grupo de consumidores para recibir todos los eventos, y los consume por lotes
+ * para mandar un solo aviso por juego aunque entren muchos jugadores a la vez.
+ *
+ * El grupo es estable por instancia (kafka.instance-id), así que un reinicio no deja grupos huérfanos. Aun así,
+ * tras arrancar no se continúa desde lo confirmado por el grupo sino desde los offsets fijados justo antes de
+ * reconstruir el estado (ver ParticipationEventStartOffsets); los ids de evento descartan lo que llegue repetido.
+ */
+@Component
+public class ParticipationEventListener implements ConsumerSeekAware {
+    private static final Logger log = LoggerFactory.getLogger(ParticipationEventListener.class);
+
+    private final GameParticipationService participationService;
+    private final EventCodec eventCodec;
+    private final ParticipationEventStartOffsets startOffsets;
+    // Particiones ya colocadas en su punto de arranque; tras un rebalanceo se sigue desde lo confirmado
+    private final Set<TopicPartition> positioned = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ParticipationEventListener(GameParticipationService participationService, EventCodec eventCodec,
+                                      ParticipationEventStartOffsets startOffsets) {
+        this.participationService = participationService;
+        this.eventCodec = eventCodec;
+        this.startOffsets = startOffsets;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            if (!positioned.add(partition)) {
+                continue;
+            }
+            Long offset = startOffsets.offsetFor(partition);
+            if (offset != null) {
+                callback.seek(partition.topic(), partition.partition(), offset);
+            } else {
+                callback.seekToTimestamp(partition.topic(), partition.partition(), startOffsets.fallbackTimestamp());
+            }
+        }
+    }
+
+    @KafkaListener(
+            topics = {GameEventProducer.PARTICIPATION_JOINED_TOPIC, GameEventProducer.PARTICIPATION_LEFT_TOPIC},
+            groupId = "game-participations-${kafka.instance-id}",
+            batch = "true")
+    public void consumeParticipationEvents(List<ConsumerRecord<String, byte[]>> records) {
+        List<ParticipationEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                ParticipationEvent event = eventCodec.decode(record.value(), ParticipationEvent.class);
+                // Seguía en el outbox al reconstruir: su cambio ya está contado
+                if (!startOffsets.includedInRebuild(event.getEventId())) {
+                    events.add(event);
+                }
+            } catch (Exception e) {
+                // Volver a leerlo no lo arreglaría; la presencia se corrige en el siguiente arranque
+                log.error("Evento de participación ilegible en {}-{}@{}: {}", record.topic(), record.partition(), record.offset(), e.getMessage());
+            }
+        }
+        if (!events.isEmpty()) {
+            participationService.applyParticipationEvents(events);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.EventCodec;
+import com.example.events.ParticipationEvent;
+import com.example.game_service_api.commons.entities.OutboxEvent;
+import com.example.game_service_api.repositories.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Punto de los topics de participación desde el que ParticipationEventListener empieza a leer en esta réplica.
+ * Se fija antes de que los contadores y la presencia se reconstruyan desde la base de datos (ver su @DependsOn):
+ * lo publicado hasta aquí ya está en lo que leen, y lo que llegue después se aplica desde Kafka.
+ *
+ * Los eventos que seguían en el outbox en ese momento ya están confirmados, y por tanto en la reconstrucción,
+ * pero se publicarán detrás de estos offsets; sus ids se guardan para descartarlos cuando lleguen. Los confirmados
+ * entre la captura y la reconstrucción también llegan después de estos offsets: la presencia los absorbe y los
+ * contadores reconocen sus salidas (ver closedSince).
+ */
+@Component
+public class ParticipationEventStartOffsets {
+    private static final Logger log = LoggerFactory.getLogger(ParticipationEventStartOffsets.class);
+    private static final List<String> TOPICS = List.of(
+            GameEventProducer.PARTICIPATION_JOINED_TOPIC, GameEventProducer.PARTICIPATION_LEFT_TOPIC);
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventCodec eventCodec;
+    private final Duration timeout;
+    private final long fallbackMarginMillis;
+
+    private final Map<TopicPartition, Long> endOffsets = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingEventIds = ConcurrentHashMap.newKeySet();
+    private long capturedAt;
+
+    @Autowired
+    public ParticipationEventStartOffsets(
+            ConsumerFactory<String, byte[]> consumerFactory,
+            OutboxEventRepository outboxEventRepository,
+            EventCodec eventCodec,
+            @Value("${participation.events.offsets-timeout:10000}") long timeoutMillis,
+            @Value("${participation.events.fallback-margin:5000}") long fallbackMarginMillis) {
+        this.consumerFactory = consumerFactory;
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventCodec = eventCodec;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.fallbackMarginMillis = fallbackMarginMillis;
+    }
+
+    @PostConstruct
+    public void capture() {
+        // Primero el outbox: lo que se publique entre ambas lecturas queda antes de los offsets y no se lee
+        for (OutboxEvent pending : outboxEventRepository.findByTopicIn(TOPICS)) {
+            try {
+                UUID eventId = eventCodec.decode(pending.getPayload(), ParticipationEvent.class).getEventId();
+                if (eventId != null) {
+                    pendingEventIds.add(eventId);
+                }
+            } catch (Exception e) {
+                log.warn("Evento {} del outbox ilegible: {}", pending.getId(), e.getMessage());
+            }
+        }
+
+        capturedAt = System.currentTimeMillis();
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(null, "participation-start-offsets")) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : TOPICS) {
+                List<PartitionInfo> infos = consumer.partitionsFor(topic, timeout);
+                if (infos != null) {
+                    infos.forEach(info -> partitions.add(new TopicPartition(topic, info.partition())));
+                }
+            }
+            endOffsets.putAll(consumer.endOffsets(partitions, timeout));
+            log.info("Eventos de participación leídos desde los offsets {}", endOffsets);
+        } catch (Exception e) {
+            // Sin offsets se empieza por timestamp (ver fallbackTimestamp)
+            log.warn("No se pudieron leer los offsets de los eventos de participación: {}", e.getMessage());
+        }
+    }
+
+    // Offset desde el que leer la partición, o null si no se conocía al arrancar
+    public Long offsetFor(TopicPartition partition) {
+        return endOffsets.get(partition);
+    }
+
+    // Si Kafka no respondió al arrancar se relee un margen antes de la reconstrucción: mejor que perder los eventos
+    // que llegaron mientras tanto. Los de ese margen ya reconstruidos no se cuentan dos veces (ver closedSince)
+    public long fallbackTimestamp() {
+        return capturedAt - fallbackMarginMillis;
+    }
+
+    /**
+     * Las salidas confirmadas desde este instante pueden llegar por Kafka aunque la reconstrucción, posterior a
+     * los offsets, ya las cuente. Los contadores guardan qué participaciones cerradas desde aquí vieron al
+     * reconstruirse para no sumar otra vez su sesión (las uniones no hace falta: la presencia es idempotente).
+     * Cubre el margen del timestamp de respaldo y otro más entre el left_at de una salida y su commit.
+     */
+    public LocalDateTime closedSince() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(fallbackTimestamp() - fallbackMarginMillis), ZoneId.systemDefault());
+    }
+
+    // Cierto la primera vez que llega un evento que ya estaba confirmado cuando se reconstruyó el estado
+    public boolean includedInRebuild(UUID eventId) {
+        return eventId != null && pendingEventIds.remove(eventId);
+    }
+}
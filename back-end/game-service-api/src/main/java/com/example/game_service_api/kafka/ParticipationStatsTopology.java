@@ -0,0 +1,139 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.EventCodec;
+import com.example.events.ParticipationEvent;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Topología de Kafka Streams con las estadísticas en directo de cada juego, calculadas a partir de
+ * event.participation-joined y event.participation-left (clave: id del juego).
+ *
+ * - game-active-players: jugadores activos por juego, +1 por cada entrada y -1 por cada salida. Como la suma no
+ *   depende del orden, da igual que una salida se procese antes que su entrada.
+ * - game-minute-stats: por juego y minuto, sesiones empezadas, terminadas y minutos jugados de las terminadas.
+ *
+ * Los dos almacenes son RocksDB locales respaldados por un changelog en Kafka y se consultan con interactive
+ * queries desde LiveGameStatsServiceImpl. Antes de agregar se descartan los eventos repetidos por su id (el relay
+ * del outbox puede reenviar un evento si se cae entre el envío y el borrado de la fila).
+ */
+@Component
+public class ParticipationStatsTopology {
+    public static final String ACTIVE_PLAYERS_STORE = "game-active-players";
+    public static final String MINUTE_STATS_STORE = "game-minute-stats";
+    private static final String EVENT_IDS_STORE = "participation-event-ids";
+
+    private static final Logger log = LoggerFactory.getLogger(ParticipationStatsTopology.class);
+
+    private final EventCodec eventCodec;
+    private final Duration retention;
+    private final Duration grace;
+    private final Duration dedupWindow;
+
+    @Autowired
+    public ParticipationStatsTopology(
+            EventCodec eventCodec,
+            @Value("${participation.live-stats.retention-minutes:120}") long retentionMinutes,
+            @Value("${participation.live-stats.grace-seconds:60}") long graceSeconds,
+            @Value("${participation.live-stats.dedup-window-minutes:10}") long dedupWindowMinutes) {
+        this.eventCodec = eventCodec;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.grace = Duration.ofSeconds(graceSeconds);
+        this.dedupWindow = Duration.ofMinutes(dedupWindowMinutes);
+    }
+
+    @Autowired
+    public void buildPipeline(StreamsBuilder builder) {
+        StoreBuilder<WindowStore<String, Long>> eventIds = Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(EVENT_IDS_STORE, dedupWindow, dedupWindow, false),
+                Serdes.String(), Serdes.Long());
+        builder.addStateStore(eventIds);
+
+        Consumed<String, byte[]> consumed = Consumed.with(Serdes.String(), Serdes.ByteArray());
+        KStream<String, ParticipationEvent> events = builder.stream(GameEventProducer.PARTICIPATION_JOINED_TOPIC, consumed)
+                .merge(builder.stream(GameEventProducer.PARTICIPATION_LEFT_TOPIC, consumed))
+                .flatMapValues(this::decode)
+                .processValues(() -> new DeduplicationProcessor(dedupWindow), EVENT_IDS_STORE);
+
+        events.mapValues(event -> ParticipationEvent.JOINED.equals(event.getEventType()) ? 1L : -1L)
+                .groupByKey(Grouped.with(Serdes.String(), Serdes.Long()))
+                .reduce(Long::sum, Materialized.<String, Long, KeyValueStore<Bytes, byte[]>>as(ACTIVE_PLAYERS_STORE)
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(Serdes.Long()));
+
+        events.mapValues(GameMinuteStats::of)
+                .groupByKey(Grouped.with(Serdes.String(), GameMinuteStats.SERDE))
+                .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofMinutes(1), grace))
+                .reduce(GameMinuteStats::merge, Materialized.<String, GameMinuteStats, WindowStore<Bytes, byte[]>>as(MINUTE_STATS_STORE)
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(GameMinuteStats.SERDE)
+                        .withRetention(retention));
+    }
+
+    // Un mensaje ilegible se descarta aquí: volver a leerlo no lo arreglaría y pararía la tarea
+    private List<ParticipationEvent> decode(byte[] value) {
+        try {
+            return List.of(eventCodec.decode(value, ParticipationEvent.class));
+        } catch (RuntimeException e) {
+            log.error("Evento de participación ilegible descartado: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    // Deja pasar cada id de evento una sola vez dentro de la ventana de deduplicación.
+    // No cambia la clave (gameId), así que las agregaciones no necesitan un topic de reparticionado
+    private static class DeduplicationProcessor implements FixedKeyProcessor<String, ParticipationEvent, ParticipationEvent> {
+        private final Duration window;
+        private FixedKeyProcessorContext<String, ParticipationEvent> context;
+        private WindowStore<String, Long> eventIds;
+
+        DeduplicationProcessor(Duration window) {
+            this.window = window;
+        }
+
+        @Override
+        public void init(FixedKeyProcessorContext<String, ParticipationEvent> context) {
+            this.context = context;
+            this.eventIds = context.getStateStore(EVENT_IDS_STORE);
+        }
+
+        @Override
+        public void process(FixedKeyRecord<String, ParticipationEvent> record) {
+            if (record.value().getEventId() == null) {
+                context.forward(record);
+                return;
+            }
+            String eventId = record.value().getEventId().toString();
+            long timestamp = record.timestamp();
+            try (WindowStoreIterator<Long> seen = eventIds.fetch(eventId, timestamp - window.toMillis(), timestamp + window.toMillis())) {
+                if (seen.hasNext()) {
+                    return;
+                }
+            }
+            eventIds.put(eventId, timestamp, timestamp);
+            context.forward(record);
+        }
+    }
+}
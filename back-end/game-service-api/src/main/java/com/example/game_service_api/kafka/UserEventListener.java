@@ -1,72 +1,141 @@
 package com.example.game_service_api.kafka;
 
-import com.example.game_service_api.commons.entities.UserView;
-import com.example.game_service_api.repositories.RoleViewRepository;
-import com.example.game_service_api.repositories.UserViewRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.events.EventCodec;
+import com.example.events.UserEvent;
+import com.example.game_service_api.commons.utils.EventDeduplicator;
+import com.example.game_service_api.services.UserViewSyncService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Este componente se encargará de escuchar los eventos Kafka de usuarios.
  * SOLO CONSUME - no produce eventos de usuario
+ *
+ * Consume por lotes y cada lote se aplica en una transacción (UserViewSyncService). Los offsets del lote
+ * se confirman al volver del listener, es decir, después del commit. Con users.bootstrap.enabled no arranca solo:
+ * lo inicia UserViewBootstrapServiceImpl cuando termina de reconstruir UserView desde el principio del topic.
+ *
+ * Si el lote falla se repite registro a registro, y los que siguen fallando se reenvían a user-events-fallback,
+ * donde UserEventRetryListener los reintenta con espera exponencial sin frenar esta partición.
+ * Las reentregas (offset ya procesado o id de evento ya visto) se descartan con EventDeduplicator.
  */
 @Component
 public class UserEventListener {
+    public static final String LISTENER_ID = "userEventListener";
+    public static final String EXCEPTION_HEADER = "user-event-exception";
+
     private static final Logger log = LoggerFactory.getLogger(UserEventListener.class);
 
-    private final UserViewRepository userViewRepository;
-    private final RoleViewRepository roleViewRepository;
-    private final ObjectMapper objectMapper;
+    private final UserViewSyncService userViewSyncService;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final EventCodec eventCodec;
+    private final String fallbackTopic;
+    private final EventDeduplicator deduplicator;
+    private final Counter duplicates;
     
     @Autowired
     public UserEventListener(
-            UserViewRepository userViewRepository,
-            RoleViewRepository roleViewRepository,
-            ObjectMapper objectMapper) {
-        this.userViewRepository = userViewRepository;
-        this.roleViewRepository = roleViewRepository;
-        this.objectMapper = objectMapper;
+            UserViewSyncService userViewSyncService,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            EventCodec eventCodec,
+            MeterRegistry meterRegistry,
+            @Value("${spring.kafka.topics.user-events-fallback}") String fallbackTopic,
+            @Value("${kafka.dedup.capacity:100000}") int dedupCapacity) {
+        this.userViewSyncService = userViewSyncService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.eventCodec = eventCodec;
+        this.fallbackTopic = fallbackTopic;
+        this.deduplicator = new EventDeduplicator(dedupCapacity);
+        this.duplicates = Counter.builder("kafka.events.duplicates").tag("listener", LISTENER_ID).register(meterRegistry);
     }
     
-    @KafkaListener(topics = "${spring.kafka.topics.user-events}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeUserEvent(String message) {
+    @KafkaListener(
+            id = LISTENER_ID,
+            topics = "${spring.kafka.topics.user-events}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            batch = "true",
+            autoStartup = "#{!${users.bootstrap.enabled:false}}")
+    public void consumeUserEvents(List<ConsumerRecord<String, byte[]>> records) throws Exception {
+        // Las reentregas se descartan antes de tocar la base de datos
+        List<ConsumerRecord<String, byte[]>> fresh = new ArrayList<>(records.size());
+        List<UUID> eventIds = new ArrayList<>(records.size());
+        Set<UUID> batchIds = new HashSet<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            UUID eventId = eventId(record);
+            if (deduplicator.isDuplicate(record.topic(), record.partition(), record.offset(), eventId)
+                    || (eventId != null && !batchIds.add(eventId))) {
+                duplicates.increment();
+                continue;
+            }
+            fresh.add(record);
+            eventIds.add(eventId);
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        boolean[] applied = new boolean[fresh.size()];
         try {
-            UserEvent event = objectMapper.readValue(message, UserEvent.class);
-            log.info("Recibido evento de usuario: {}", event.getEventType());
-            processUserEvent(event);
+            int users = userViewSyncService.applyUserEvents(fresh);
+            Arrays.fill(applied, true);
+            log.info("Procesado lote de {} eventos de usuario ({} usuarios)", fresh.size(), users);
         } catch (Exception e) {
-            log.error("Error al procesar evento de usuario: {}", e.getMessage(), e);
+            log.warn("Error al aplicar el lote de {} eventos de usuario, se aplican uno a uno: {}", fresh.size(), e.getMessage());
+            for (int i = 0; i < fresh.size(); i++) {
+                try {
+                    userViewSyncService.applyUserEvents(List.of(fresh.get(i)));
+                    applied[i] = true;
+                } catch (Exception recordError) {
+                    sendToFallback(fresh.get(i), recordError);
+                }
+            }
+        }
+
+        // Se marca al final: si un reenvío a user-events-fallback falla, el lote se reentrega completo y nada se descarta.
+        // Los reenviados avanzan la marca de su partición, pero su id queda libre para el reintento
+        for (int i = 0; i < fresh.size(); i++) {
+            ConsumerRecord<String, byte[]> record = fresh.get(i);
+            deduplicator.markProcessed(record.topic(), record.partition(), record.offset(), applied[i] ? eventIds.get(i) : null);
         }
     }
-    
-    /**
-     * Este método será anotado con @KafkaListener cuando se implemente Kafka
-     */
-    public void processUserEvent(UserEvent event) {
-        switch (event.getEventType()) {
-            case "USER_CREATED":
-            case "USER_UPDATED":
-                updateUserView(event);
-                break;
-            case "USER_DELETED":
-                userViewRepository.findById(event.getUserId())
-                    .ifPresent(userViewRepository::delete);
-                break;
+
+    // Id del evento para la ventana de duplicados; las lápidas y los registros ilegibles no tienen
+    private UUID eventId(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            return null;
+        }
+        try {
+            return eventCodec.decode(record.value(), UserEvent.class).getEventId();
+        } catch (RuntimeException e) {
+            return null;
         }
     }
-    
-    private void updateUserView(UserEvent event) {
-        UserView userView = userViewRepository.findById(event.getUserId())
-            .orElse(new UserView());
-        
-        userView.setId(event.getUserId());
-        userView.setEmail(event.getEmail());
-        userView.setName(event.getName());
-        
-        userViewRepository.save(userView);
+
+    // El envío es síncrono: si no llega a user-events-fallback, el lote entero se vuelve a entregar
+    private void sendToFallback(ConsumerRecord<String, byte[]> record, Exception error) throws Exception {
+        log.warn("Evento de usuario enviado a {} (partición {}, offset {}): {}",
+                fallbackTopic, record.partition(), record.offset(), error.getMessage());
+        ProducerRecord<String, byte[]> fallback = new ProducerRecord<>(fallbackTopic, record.key(), record.value());
+        String message = String.valueOf(error.getMessage());
+        fallback.headers().add(EXCEPTION_HEADER, message.getBytes(StandardCharsets.UTF_8));
+        kafkaTemplate.send(fallback).get(10, TimeUnit.SECONDS);
     }
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,79 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.EventCodec;
+import com.example.events.UserEvent;
+import com.example.game_service_api.commons.utils.EventDeduplicator;
+import com.example.game_service_api.services.UserViewSyncService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reintentos de los eventos de usuario que fallaron en el listener por lotes. Cada reintento espera en su propio
+ * topic (user-events-fallback-retry-0, -1...) con espera exponencial y, agotados, el registro acaba en user-events-fallback-dlt.
+ * Los registros ilegibles van directamente al DLT. Ver DeadLetterEndpoint para inspeccionarlos y reenviarlos.
+ */
+@Component
+public class UserEventRetryListener {
+    private static final Logger log = LoggerFactory.getLogger(UserEventRetryListener.class);
+
+    private final UserViewSyncService userViewSyncService;
+    private final EventCodec eventCodec;
+    private final EventDeduplicator deduplicator;
+    private final Counter duplicates;
+
+    @Autowired
+    public UserEventRetryListener(
+            UserViewSyncService userViewSyncService,
+            EventCodec eventCodec,
+            MeterRegistry meterRegistry,
+            @Value("${kafka.dedup.capacity:100000}") int dedupCapacity) {
+        this.userViewSyncService = userViewSyncService;
+        this.eventCodec = eventCodec;
+        this.deduplicator = new EventDeduplicator(dedupCapacity);
+        this.duplicates = Counter.builder("kafka.events.duplicates").tag("listener", "userEventRetryListener").register(meterRegistry);
+    }
+
+    @RetryableTopic(
+            attempts = "${kafka.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${kafka.retry.delay:1000}",
+                    multiplierExpression = "${kafka.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.retry.max-delay:60000}"),
+            dltTopicSuffix = "-dlt",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            exclude = {IllegalArgumentException.class, UncheckedIOException.class},
+            traversingCauses = "true")
+    @KafkaListener(topics = "${spring.kafka.topics.user-events-fallback}", groupId = "${spring.kafka.consumer.group-id}")
+    public void retryUserEvent(ConsumerRecord<String, byte[]> record) {
+        UUID eventId = record.value() != null ? eventCodec.decode(record.value(), UserEvent.class).getEventId() : null;
+        if (deduplicator.isDuplicate(record.topic(), record.partition(), record.offset(), eventId)) {
+            duplicates.increment();
+            return;
+        }
+        userViewSyncService.applyUserEvents(List.of(record));
+        deduplicator.markProcessed(record.topic(), record.partition(), record.offset(), eventId);
+    }
+
+    @DltHandler
+    public void onDeadLetter(ConsumerRecord<String, byte[]> record,
+                             @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+        log.error("Evento de usuario {} movido a {} (offset {}): {}", record.key(), record.topic(), record.offset(), error);
+    }
+}
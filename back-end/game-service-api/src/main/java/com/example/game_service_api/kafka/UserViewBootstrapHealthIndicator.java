@@ -0,0 +1,41 @@
+package com.example.game_service_api.kafka;
+
+import com.example.game_service_api.commons.dto.UserViewBootstrapProgress;
+import com.example.game_service_api.services.UserViewBootstrapService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Fuera de servicio mientras se reconstruye UserView desde user-events; forma parte del grupo readiness
+@Component
+public class UserViewBootstrapHealthIndicator implements HealthIndicator {
+
+    private final UserViewBootstrapService bootstrapService;
+
+    @Autowired
+    public UserViewBootstrapHealthIndicator(UserViewBootstrapService bootstrapService) {
+        this.bootstrapService = bootstrapService;
+    }
+
+    @Override
+    public Health health() {
+        UserViewBootstrapProgress progress = bootstrapService.getProgress();
+        Health.Builder builder = progress.getState() == UserViewBootstrapProgress.State.RUNNING
+                ? Health.outOfService()
+                : Health.up();
+        builder.withDetail("state", progress.getState())
+                .withDetail("recordsRead", progress.getRecordsRead())
+                .withDetail("recordsRemaining", progress.getRecordsRemaining());
+        if (progress.getStartedAt() != null) {
+            builder.withDetail("startedAt", progress.getStartedAt().toString());
+        }
+        if (progress.getFinishedAt() != null) {
+            builder.withDetail("finishedAt", progress.getFinishedAt().toString());
+        }
+        if (progress.getLastError() != null) {
+            builder.withDetail("lastError", progress.getLastError());
+        }
+        return builder.build();
+    }
+}
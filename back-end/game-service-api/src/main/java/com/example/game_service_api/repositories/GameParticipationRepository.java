@@ -1,16 +1,23 @@
 package com.example.game_service_api.repositories;
 
+import com.example.game_service_api.commons.dto.ParticipationRequest;
 import com.example.game_service_api.commons.entities.GameParticipation;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface GameParticipationRepository extends JpaRepository<GameParticipation, Long> {
+public interface GameParticipationRepository extends JpaRepository<GameParticipation, Long>, GameParticipationRepositoryCustom {
     
     List<GameParticipation> findByGameIdAndIsActiveTrue(Long gameId);
     
@@ -18,9 +25,28 @@ public interface GameParticipationRepository extends JpaRepository<GameParticipa
             @Param("userId") Long userId, 
             @Param("gameId") Long gameId);
     
+    // Participaciones activas de varios usuarios y juegos, con usuario y juego ya cargados.
+    // Solo lectura: las escrituras se hacen con SQL condicional (ver GameParticipationRepositoryImpl)
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("SELECT gp FROM GameParticipation gp JOIN FETCH gp.user u JOIN FETCH gp.game g " +
+           "WHERE gp.isActive = true AND u.id IN :userIds AND g.id IN :gameIds")
+    List<GameParticipation> findActiveByUserIdsAndGameIds(@Param("userIds") Collection<Long> userIds,
+                                                          @Param("gameIds") Collection<Long> gameIds);
+    
+    // Todas las participaciones activas para reconstruir el registro de presencia al arrancar
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("SELECT gp FROM GameParticipation gp JOIN FETCH gp.user JOIN FETCH gp.game WHERE gp.isActive = true")
+    List<GameParticipation> findAllActive();
+    
+    // Pares usuario/juego de las participaciones activas, para vigilar sus latidos al arrancar
+    @Query("SELECT new com.example.game_service_api.commons.dto.ParticipationRequest(gp.user.id, gp.game.id) " +
+           "FROM GameParticipation gp WHERE gp.isActive = true")
+    List<ParticipationRequest> findActiveUserAndGameIds();
+    
     @Query("SELECT COUNT(gp) FROM GameParticipation gp WHERE gp.game.id = :gameId AND gp.isActive = true")
     int countByGameIdAndIsActiveTrue(@Param("gameId") Long gameId);
-    
-    @Query("SELECT AVG(gp.timePlayedMinutes) FROM GameParticipation gp WHERE gp.game.id = :gameId")
-    Double calculateAverageTimePlayedForGame(@Param("gameId") Long gameId);
+
+    // Ids de las participaciones cerradas desde la fecha indicada (índice parcial por left_at)
+    @Query("SELECT gp.id FROM GameParticipation gp WHERE gp.isActive = false AND gp.leftAt >= :since")
+    List<Long> findIdsClosedSince(@Param("since") LocalDateTime since);
 }
\ No newline at end of file
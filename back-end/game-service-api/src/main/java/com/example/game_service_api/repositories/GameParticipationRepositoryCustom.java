@@ -0,0 +1,30 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.commons.dto.ParticipationHeartbeat;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.entities.GameParticipation;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface GameParticipationRepositoryCustom {
+    // Crea las participaciones activas que no existan todavía y devuelve el id de cada fila insertada
+    List<Long> insertActiveIfAbsent(List<ParticipationRequest> requests, LocalDateTime joinedAt);
+
+    // Cierra las participaciones indicadas solo si siguen activas; devuelve las filas afectadas por cada una
+    int[] closeIfActive(List<GameParticipation> participations);
+
+    // Guarda como último latido la fecha indicada en las participaciones activas de los pares pedidos
+    int touchHeartbeats(Collection<ParticipationRequest> requests, LocalDateTime heartbeatAt);
+
+    // Último latido guardado de los pares pedidos que siguen activos (la fecha de unión si aún no hay ninguno)
+    List<ParticipationHeartbeat> findActiveHeartbeats(Collection<ParticipationRequest> requests);
+
+    // Historial de un usuario (tabla activa y archivo) por keyset (joinedAt, id) descendente; afterJoinedAt/afterId nulos para la primera página
+    List<GameParticipationDTO> findUserHistory(Long userId, LocalDateTime afterJoinedAt, Long afterId, int limit);
+
+    // Mueve al archivo, en una sola sentencia, un lote de participaciones cerradas antes de la fecha indicada
+    int archiveClosedBefore(LocalDateTime leftBefore, int batchSize);
+}
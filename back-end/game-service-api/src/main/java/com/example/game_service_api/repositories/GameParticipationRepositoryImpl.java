@@ -0,0 +1,132 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.commons.dto.ParticipationHeartbeat;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.entities.GameParticipation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Operaciones de participaciones en SQL nativo. Las escrituras se apoyan en el índice único parcial
+ * (user_id, game_id) WHERE is_active: las uniones concurrentes no se bloquean ni reintentan,
+ * simplemente la segunda inserción no hace nada. Las lecturas históricas cubren también
+ * game_participations_archive, que JPA no mapea.
+ */
+public class GameParticipationRepositoryImpl implements GameParticipationRepositoryCustom {
+
+    private static final String INSERT_ACTIVE_IF_ABSENT =
+            "INSERT INTO game_participations (id, user_id, game_id, joined_at, is_active, time_played_minutes, last_heartbeat_at) " +
+            "SELECT nextval('game_participations_seq'), t.user_id, t.game_id, ?, true, 0, ? " +
+            "FROM unnest(?::bigint[], ?::bigint[]) AS t(user_id, game_id) " +
+            "ON CONFLICT (user_id, game_id) WHERE is_active DO NOTHING " +
+            "RETURNING id";
+
+    private static final String CLOSE_IF_ACTIVE =
+            "UPDATE game_participations SET is_active = false, left_at = ?, time_played_minutes = ? " +
+            "WHERE id = ? AND is_active";
+
+    private static final String TOUCH_HEARTBEATS =
+            "UPDATE game_participations gp SET last_heartbeat_at = ? " +
+            "FROM unnest(?::bigint[], ?::bigint[]) AS t(user_id, game_id) " +
+            "WHERE gp.user_id = t.user_id AND gp.game_id = t.game_id AND gp.is_active " +
+            "AND (gp.last_heartbeat_at IS NULL OR gp.last_heartbeat_at < ?)";
+
+    private static final String ACTIVE_HEARTBEATS =
+            "SELECT gp.user_id, gp.game_id, COALESCE(gp.last_heartbeat_at, gp.joined_at) AS last_heartbeat_at " +
+            "FROM game_participations gp JOIN unnest(?::bigint[], ?::bigint[]) AS t(user_id, game_id) " +
+            "ON gp.user_id = t.user_id AND gp.game_id = t.game_id WHERE gp.is_active";
+
+    private static final String HISTORY_COLUMNS = "id, user_id, game_id, joined_at, left_at, is_active, time_played_minutes";
+
+    // Cada rama se resuelve con el índice (user_id, joined_at DESC, id DESC) de su tabla y solo se unen las filas de la página
+    private static final String USER_HISTORY =
+            "SELECT h.id, h.user_id, h.game_id, g.name, h.joined_at, h.left_at, h.is_active, h.time_played_minutes FROM (" +
+            "(SELECT " + HISTORY_COLUMNS + " FROM game_participations WHERE user_id = ? %1$s ORDER BY joined_at DESC, id DESC LIMIT ?) " +
+            "UNION ALL " +
+            "(SELECT " + HISTORY_COLUMNS + " FROM game_participations_archive WHERE user_id = ? %1$s ORDER BY joined_at DESC, id DESC LIMIT ?)" +
+            ") h JOIN games g ON g.id = h.game_id " +
+            "ORDER BY h.joined_at DESC, h.id DESC LIMIT ?";
+    private static final String KEYSET_PREDICATE = "AND (joined_at, id) < (?, ?)";
+
+    private static final String ARCHIVE_CLOSED_BEFORE =
+            "WITH moved AS (" +
+            "DELETE FROM game_participations WHERE id IN (" +
+            "SELECT id FROM game_participations WHERE NOT is_active AND left_at < ? LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING " + HISTORY_COLUMNS + ") " +
+            "INSERT INTO game_participations_archive (" + HISTORY_COLUMNS + ") SELECT " + HISTORY_COLUMNS + " FROM moved";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> insertActiveIfAbsent(List<ParticipationRequest> requests, LocalDateTime joinedAt) {
+        Long[][] pairs = userAndGameIds(requests);
+        // Una sola sentencia para todos los pares, sea una unión individual o masiva
+        return jdbcTemplate.queryForList(INSERT_ACTIVE_IF_ABSENT, Long.class, joinedAt, joinedAt, pairs[0], pairs[1]);
+    }
+
+    @Override
+    public int touchHeartbeats(Collection<ParticipationRequest> requests, LocalDateTime heartbeatAt) {
+        Long[][] pairs = userAndGameIds(requests);
+        return jdbcTemplate.update(TOUCH_HEARTBEATS, heartbeatAt, pairs[0], pairs[1], heartbeatAt);
+    }
+
+    @Override
+    public List<ParticipationHeartbeat> findActiveHeartbeats(Collection<ParticipationRequest> requests) {
+        Long[][] pairs = userAndGameIds(requests);
+        return jdbcTemplate.query(ACTIVE_HEARTBEATS, (rs, rowNum) -> new ParticipationHeartbeat(
+                rs.getLong("user_id"),
+                rs.getLong("game_id"),
+                rs.getObject("last_heartbeat_at", LocalDateTime.class)), pairs[0], pairs[1]);
+    }
+
+    // Columnas paralelas de ids de usuario y de juego para pasarlas a unnest
+    private static Long[][] userAndGameIds(Collection<ParticipationRequest> requests) {
+        Long[][] pairs = new Long[2][requests.size()];
+        int i = 0;
+        for (ParticipationRequest request : requests) {
+            pairs[0][i] = request.getUserId();
+            pairs[1][i] = request.getGameId();
+            i++;
+        }
+        return pairs;
+    }
+
+    @Override
+    public int[] closeIfActive(List<GameParticipation> participations) {
+        return jdbcTemplate.batchUpdate(CLOSE_IF_ACTIVE, participations, participations.size(), (ps, participation) -> {
+            ps.setObject(1, participation.getLeftAt());
+            ps.setInt(2, participation.getTimePlayedMinutes());
+            ps.setLong(3, participation.getId());
+        })[0];
+    }
+
+    @Override
+    public List<GameParticipationDTO> findUserHistory(Long userId, LocalDateTime afterJoinedAt, Long afterId, int limit) {
+        boolean keyset = afterJoinedAt != null && afterId != null;
+        String sql = String.format(USER_HISTORY, keyset ? KEYSET_PREDICATE : "");
+        Object[] params = keyset
+                ? new Object[]{userId, afterJoinedAt, afterId, limit, userId, afterJoinedAt, afterId, limit, limit}
+                : new Object[]{userId, limit, userId, limit, limit};
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new GameParticipationDTO(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getLong("game_id"),
+                rs.getString("name"),
+                rs.getObject("joined_at", LocalDateTime.class),
+                rs.getObject("left_at", LocalDateTime.class),
+                rs.getBoolean("is_active"),
+                (Integer) rs.getObject("time_played_minutes")), params);
+    }
+
+    @Override
+    public int archiveClosedBefore(LocalDateTime leftBefore, int batchSize) {
+        // DELETE ... RETURNING e INSERT en la misma sentencia: una fila nunca está en las dos tablas ni en ninguna
+        return jdbcTemplate.update(ARCHIVE_CLOSED_BEFORE, leftBefore, batchSize);
+    }
+}
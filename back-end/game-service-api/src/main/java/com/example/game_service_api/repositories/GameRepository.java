@@ -1,8 +1,117 @@
 package com.example.game_service_api.repositories;
 
+import com.example.game_service_api.commons.dto.GameCatalogVersion;
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.GameParticipationMetrics;
 import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface GameRepository extends JpaRepository<Game, Long> {
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface GameRepository extends JpaRepository<Game, Long>, GameRepositoryCustom {
+
+    // Los contadores de participación se escriben como filas de game_counter_deltas en la misma transacción que
+    // cada unión o salida (ver GameRepositoryCustom.insertCounterDeltas); estas sentencias las suman a games.
+    // Las ejecuta una réplica a la vez: el cerrojo es de transacción y se suelta con su commit o rollback
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('game-counters'))", nativeQuery = true)
+    boolean tryAcquireCountersLock();
+
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtext('game-counters'))) l", nativeQuery = true)
+    int acquireCountersLock();
+
+    // Mueve a games, en una sola sentencia, los incrementos pendientes de los juegos que ya tienen contadores.
+    // Si el proceso cae antes del commit las filas siguen ahí y las suma el siguiente volcado
+    @Modifying
+    @Query(value = "WITH folded AS (DELETE FROM game_counter_deltas d USING games g " +
+           "WHERE d.game_id = g.id AND g.active_participants_count IS NOT NULL " +
+           "RETURNING d.game_id, d.active_delta, d.sessions_delta, d.minutes_delta), " +
+           "sums AS (SELECT game_id, SUM(active_delta) AS active, SUM(sessions_delta) AS sessions, " +
+           "SUM(minutes_delta) AS minutes FROM folded GROUP BY game_id) " +
+           "UPDATE games g SET active_participants_count = g.active_participants_count + sums.active, " +
+           "total_sessions = g.total_sessions + sums.sessions, total_minutes_played = g.total_minutes_played + sums.minutes " +
+           "FROM sums WHERE g.id = sums.game_id", nativeQuery = true)
+    int foldCounterDeltas();
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM games WHERE active_participants_count IS NULL)", nativeQuery = true)
+    boolean existsGameWithoutCounters();
+
+    // Da contadores a los juegos anteriores a ellos a partir de su historial (tabla activa y archivo), y descarta
+    // sus incrementos pendientes: con la misma instantánea, los confirmados ya están en el historial sumado
+    @Modifying
+    @Query(value = "WITH missing AS (SELECT id FROM games WHERE active_participants_count IS NULL), " +
+           "replaced AS (DELETE FROM game_counter_deltas d USING missing WHERE d.game_id = missing.id), " +
+           "history AS (SELECT p.game_id, " +
+           "SUM(CASE WHEN p.is_active THEN 1 ELSE 0 END) AS active, " +
+           "SUM(CASE WHEN p.is_active THEN 0 ELSE 1 END) AS sessions, " +
+           "SUM(CASE WHEN p.is_active THEN 0 ELSE COALESCE(p.time_played_minutes, 0) END) AS minutes " +
+           "FROM (SELECT game_id, is_active, time_played_minutes FROM game_participations " +
+           "WHERE game_id IN (SELECT id FROM missing) " +
+           "UNION ALL SELECT game_id, is_active, time_played_minutes FROM game_participations_archive " +
+           "WHERE game_id IN (SELECT id FROM missing)) p GROUP BY p.game_id) " +
+           "UPDATE games g SET active_participants_count = COALESCE(h.active, 0), " +
+           "total_sessions = COALESCE(h.sessions, 0), total_minutes_played = COALESCE(h.minutes, 0) " +
+           "FROM missing LEFT JOIN history h ON h.game_id = missing.id " +
+           "WHERE g.id = missing.id AND g.active_participants_count IS NULL", nativeQuery = true)
+    int initializeMissingCounters();
+
+    // Contadores de cada juego: lo ya sumado en games más sus incrementos pendientes
+    @Query(value = "SELECT g.id AS \"gameId\", " +
+           "CAST(g.active_participants_count + COALESCE(d.active, 0) AS bigint) AS \"activeParticipants\", " +
+           "CAST(g.total_sessions + COALESCE(d.sessions, 0) AS bigint) AS \"totalSessions\", " +
+           "CAST(g.total_minutes_played + COALESCE(d.minutes, 0) AS bigint) AS \"totalMinutesPlayed\" " +
+           "FROM games g LEFT JOIN (SELECT game_id, SUM(active_delta) AS active, SUM(sessions_delta) AS sessions, " +
+           "SUM(minutes_delta) AS minutes FROM game_counter_deltas GROUP BY game_id) d ON d.game_id = g.id " +
+           "WHERE g.active_participants_count IS NOT NULL", nativeQuery = true)
+    List<GameParticipationMetrics> findParticipationCounters();
+
+    // Columnas de GameDTO, incluido el id del creador, sin hidratar entidades ni cargar el creador
+    String GAME_DTO_SELECT = "SELECT new com.example.game_service_api.commons.dto.GameDTO(" +
+            "g.id, g.name, g.status, g.players, g.createdAt, g.lastUpdated, g.timeElapsed, c.id, " +
+            "g.gameType, g.isPublic, g.allowSpectators, g.enableChat, g.recordStats) " +
+            "FROM Game g LEFT JOIN g.creator c ";
+
+    @Query(GAME_DTO_SELECT + "ORDER BY g.id")
+    List<GameDTO> findAllGameDTOs();
+
+    @Query(GAME_DTO_SELECT + "WHERE g.status = :status")
+    List<GameDTO> findGameDTOsByStatus(@Param("status") GameStatus status);
+
+    @Query(GAME_DTO_SELECT + "WHERE g.id = :id")
+    Optional<GameDTO> findGameDTOById(@Param("id") Long id);
+
+    // Búsqueda por subcadena del nombre (índice de trigramas sobre lower(name)), primero las coincidencias por prefijo
+    @Query(GAME_DTO_SELECT +
+           "WHERE LOWER(g.name) LIKE :contains ESCAPE '!' " +
+           "AND (:gameType IS NULL OR g.gameType = :gameType) " +
+           "ORDER BY CASE WHEN LOWER(g.name) LIKE :prefix ESCAPE '!' THEN 0 ELSE 1 END, g.name, g.id")
+    List<GameDTO> searchGameDTOs(@Param("contains") String contains,
+                                 @Param("prefix") String prefix,
+                                 @Param("gameType") String gameType,
+                                 Pageable pageable);
+
+    @Query(GAME_DTO_SELECT + "WHERE g.gameType = :gameType ORDER BY g.name, g.id")
+    List<GameDTO> findGameDTOsByGameType(@Param("gameType") String gameType, Pageable pageable);
+
+    // Recorre todos los juegos con un cursor de base de datos en lugar de cargarlos en una lista
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(GAME_DTO_SELECT + "ORDER BY g.id")
+    Stream<GameDTO> streamAllGameDTOs();
+
+    @Query("SELECT MAX(g.lastUpdated) AS lastUpdated, COUNT(g) AS total FROM Game g")
+    GameCatalogVersion findCatalogVersion();
+
+    @Query("SELECT g.lastUpdated FROM Game g WHERE g.id = :id")
+    Optional<Date> findLastUpdatedById(@Param("id") Long id);
 }
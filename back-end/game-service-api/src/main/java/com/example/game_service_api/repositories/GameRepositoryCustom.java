@@ -0,0 +1,19 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.entities.GameParticipation;
+import com.example.game_service_api.commons.entities.GameStatus;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface GameRepositoryCustom {
+    // Página ordenada por (createdAt, id) descendente que empieza justo después del cursor indicado
+    List<GameDTO> findPage(GameStatus status, String gameType, Boolean isPublic,
+                        Date afterCreatedAt, Long afterId, int limit);
+
+    // Anota en game_counter_deltas, con un solo INSERT, una unión (+1 activo) o un cierre (-1 activo,
+    // +1 sesión y sus minutos) por participación. Va en la transacción de la unión o la salida
+    int insertCounterDeltas(Collection<GameParticipation> participations, boolean closed);
+}
@@ -0,0 +1,96 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameParticipation;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.commons.entities.UserView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+// Implementación de las consultas de juegos que se construyen dinámicamente según los filtros recibidos
+public class GameRepositoryImpl implements GameRepositoryCustom {
+
+    private static final String INSERT_COUNTER_DELTAS =
+            "INSERT INTO game_counter_deltas (game_id, active_delta, sessions_delta, minutes_delta) " +
+            "SELECT t.game_id, ?, ?, t.minutes FROM unnest(?::bigint[], ?::bigint[]) AS t(game_id, minutes)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<GameDTO> findPage(GameStatus status, String gameType, Boolean isPublic,
+                               Date afterCreatedAt, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<GameDTO> query = cb.createQuery(GameDTO.class);
+        Root<Game> game = query.from(Game.class);
+        Join<Game, UserView> creator = game.join("creator", JoinType.LEFT);
+        Path<Date> createdAt = game.get("createdAt");
+        Path<Long> id = game.get("id");
+
+        // Los juegos sin createdAt no pueden ordenarse por cursor y quedan fuera del listado paginado
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isNotNull(createdAt));
+        // Solo se añaden los filtros recibidos para que cada combinación use su índice
+        if (status != null) {
+            predicates.add(cb.equal(game.get("status"), status));
+        }
+        if (gameType != null) {
+            predicates.add(cb.equal(game.get("gameType"), gameType));
+        }
+        if (isPublic != null) {
+            predicates.add(cb.equal(game.get("isPublic"), isPublic));
+        }
+        // Condición keyset: filas estrictamente posteriores a (afterCreatedAt, afterId) en el orden descendente
+        if (afterCreatedAt != null && afterId != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(createdAt, afterCreatedAt),
+                    cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(id, afterId))));
+        }
+
+        // Se seleccionan directamente las columnas de GameDTO en lugar de hidratar entidades
+        query.select(cb.construct(GameDTO.class,
+                        id, game.get("name"), game.get("status"), game.get("players"), createdAt,
+                        game.get("lastUpdated"), game.get("timeElapsed"), creator.get("id"), game.get("gameType"),
+                        game.get("isPublic"), game.get("allowSpectators"), game.get("enableChat"), game.get("recordStats")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int insertCounterDeltas(Collection<GameParticipation> participations, boolean closed) {
+        if (participations.isEmpty()) {
+            return 0;
+        }
+        Long[] gameIds = new Long[participations.size()];
+        Long[] minutes = new Long[participations.size()];
+        int i = 0;
+        for (GameParticipation participation : participations) {
+            gameIds[i] = participation.getGame().getId();
+            minutes[i] = closed && participation.getTimePlayedMinutes() != null ? participation.getTimePlayedMinutes().longValue() : 0L;
+            i++;
+        }
+        return jdbcTemplate.update(INSERT_COUNTER_DELTAS, closed ? -1 : 1, closed ? 1 : 0, gameIds, minutes);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.entities.GameTimeHistogram;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GameTimeHistogramRepository extends JpaRepository<GameTimeHistogram, Long> {
+
+    // Bloquea las filas para que el volcado de cada réplica sume sus recuentos sin pisar los de las demás
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM GameTimeHistogram h WHERE h.gameId IN :gameIds")
+    List<GameTimeHistogram> findAllForUpdate(@Param("gameIds") Collection<Long> gameIds);
+}
@@ -0,0 +1,39 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.entities.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Solo una réplica publica a la vez: repartir lotes entre réplicas desordenaría los eventos de una misma clave.
+    // El cerrojo es de transacción, se suelta solo con el commit o el rollback del ciclo
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('outbox-relay'))", nativeQuery = true)
+    boolean tryAcquireRelayLock();
+
+    // Los eventos más antiguos primero, sin los apartados por agotar sus intentos
+    @Query(value = "SELECT * FROM outbox_events WHERE failed_at IS NULL ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(@Param("limit") int limit);
+
+    // Eventos aún sin publicar de los topics indicados
+    List<OutboxEvent> findByTopicIn(Collection<String> topics);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.failedAt = CURRENT_TIMESTAMP WHERE e.id IN :ids AND e.attempts >= :maxAttempts")
+    int parkExhausted(@Param("ids") Collection<Long> ids, @Param("maxAttempts") int maxAttempts);
+
+    long countByFailedAtIsNull();
+
+    long countByFailedAtIsNotNull();
+}
@@ -7,6 +7,6 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface UserViewRepository extends JpaRepository<UserView, Long> {
+public interface UserViewRepository extends JpaRepository<UserView, Long>, UserViewRepositoryCustom {
     Optional<UserView> findByEmail(String email);
 } 
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.entities.UserView;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface UserViewRepositoryCustom {
+    // Inserta o actualiza email y nombre de todos los usuarios en una sola sentencia, salvo las filas que ya
+    // reflejan un evento posterior (lastEventAt); devuelve las filas afectadas
+    int upsertAll(Collection<UserView> users);
+
+    // Borra los usuarios indicados y sus roles en dos sentencias, salvo los actualizados por un evento posterior
+    // al borrado (valor del mapa; nulo = borrar siempre); devuelve los usuarios borrados
+    int deleteAllIfNotNewer(Map<Long, LocalDateTime> deletedAt);
+
+    // Borra los usuarios y sus roles que no estén entre los indicados y no hayan recibido un evento desde la
+    // fecha dada; devuelve los usuarios borrados
+    int deleteAllExcept(Collection<Long> keptIds, LocalDateTime unchangedSince);
+}
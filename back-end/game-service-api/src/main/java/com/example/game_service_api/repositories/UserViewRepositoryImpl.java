@@ -0,0 +1,92 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.commons.entities.UserView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Escrituras masivas de la vista de usuarios sincronizada desde authservice. Cada lote de eventos
+ * se aplica con una sentencia por operación en lugar de un findById + save por evento.
+ *
+ * Los eventos que fallan en el lote se reintentan aparte (UserEventRetryListener) mientras siguen llegando
+ * eventos nuevos del mismo usuario, así que cada fila guarda la marca de tiempo del último evento aplicado
+ * y las sentencias no aplican un evento anterior a ella. Un evento sin marca de tiempo se aplica siempre.
+ */
+public class UserViewRepositoryImpl implements UserViewRepositoryCustom {
+
+    private static final String UPSERT_ALL =
+            "INSERT INTO users (id, email, name, last_event_at) " +
+            "SELECT * FROM unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::timestamp[]) " +
+            "ON CONFLICT (id) DO UPDATE SET email = EXCLUDED.email, name = EXCLUDED.name, " +
+            "last_event_at = COALESCE(EXCLUDED.last_event_at, users.last_event_at) " +
+            "WHERE EXCLUDED.last_event_at IS NULL OR users.last_event_at IS NULL OR users.last_event_at <= EXCLUDED.last_event_at";
+
+    // Usuarios del lote cuya fila no refleja un evento posterior al borrado
+    private static final String DELETABLE =
+            "SELECT u.id FROM users u JOIN unnest(?::bigint[], ?::timestamp[]) AS d(id, deleted_at) ON d.id = u.id " +
+            "WHERE d.deleted_at IS NULL OR u.last_event_at IS NULL OR u.last_event_at <= d.deleted_at";
+    private static final String DELETE_ROLES = "DELETE FROM user_roles WHERE user_id IN (" + DELETABLE + ")";
+    private static final String DELETE_USERS = "DELETE FROM users WHERE id IN (" + DELETABLE + ")";
+
+    // Usuarios fuera de la lista que no han recibido ningún evento desde la fecha indicada
+    private static final String NOT_KEPT =
+            "SELECT u.id FROM users u WHERE u.id <> ALL (?::bigint[]) AND (u.last_event_at IS NULL OR u.last_event_at < ?)";
+    private static final String DELETE_ROLES_NOT_KEPT = "DELETE FROM user_roles WHERE user_id IN (" + NOT_KEPT + ")";
+    private static final String DELETE_USERS_NOT_KEPT = "DELETE FROM users WHERE id IN (" + NOT_KEPT + ")";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int upsertAll(Collection<UserView> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = new Long[users.size()];
+        String[] emails = new String[users.size()];
+        String[] names = new String[users.size()];
+        String[] eventTimes = new String[users.size()];
+        int i = 0;
+        for (UserView user : users) {
+            ids[i] = user.getId();
+            emails[i] = user.getEmail();
+            names[i] = user.getName();
+            eventTimes[i] = toTimestamp(user.getLastEventAt());
+            i++;
+        }
+        return jdbcTemplate.update(UPSERT_ALL, ids, emails, names, eventTimes);
+    }
+
+    @Override
+    public int deleteAllIfNotNewer(Map<Long, LocalDateTime> deletedAt) {
+        if (deletedAt.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = new Long[deletedAt.size()];
+        String[] eventTimes = new String[deletedAt.size()];
+        int i = 0;
+        for (Map.Entry<Long, LocalDateTime> entry : deletedAt.entrySet()) {
+            ids[i] = entry.getKey();
+            eventTimes[i] = toTimestamp(entry.getValue());
+            i++;
+        }
+        jdbcTemplate.update(DELETE_ROLES, ids, eventTimes);
+        return jdbcTemplate.update(DELETE_USERS, ids, eventTimes);
+    }
+
+    @Override
+    public int deleteAllExcept(Collection<Long> keptIds, LocalDateTime unchangedSince) {
+        Long[] ids = keptIds.toArray(new Long[0]);
+        jdbcTemplate.update(DELETE_ROLES_NOT_KEPT, ids, unchangedSince);
+        return jdbcTemplate.update(DELETE_USERS_NOT_KEPT, ids, unchangedSince);
+    }
+
+    // Texto ISO que PostgreSQL convierte con ::timestamp[]; el driver ya sabe pasar arrays de String
+    private static String toTimestamp(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -7,6 +7,7 @@ import com.example.game_service_api.repositories.UserViewRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -23,12 +24,16 @@ public class DataReconciliationService {
     private final GameRepository gameRepository;
     private final UserViewRepository userViewRepository;
     
+    private final boolean bootstrapEnabled;
+    
     @Autowired
     public DataReconciliationService(
             GameRepository gameRepository,
-            UserViewRepository userViewRepository) {
+            UserViewRepository userViewRepository,
+            @Value("${users.bootstrap.enabled:false}") boolean bootstrapEnabled) {
         this.gameRepository = gameRepository;
         this.userViewRepository = userViewRepository;
+        this.bootstrapEnabled = bootstrapEnabled;
     }
     
     /**
@@ -75,6 +80,11 @@ public class DataReconciliationService {
      */
     @EventListener(ApplicationReadyEvent.class)
     public void onApplicationReady() {
+        if (bootstrapEnabled) {
+            // UserView todavía se está reconstruyendo desde user-events; la reconciliación periódica lo hará después
+            log.info("Reconciliación inicial omitida en modo reconstrucción de UserView");
+            return;
+        }
         log.info("Ejecutando reconciliación inicial de datos");
         reconcileOrphanedGames();
     }
@@ -0,0 +1,8 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.dto.GameDTO;
+
+public interface GameCacheService {
+    GameDTO findById(Long id);
+    void evict(Long id);
+}
@@ -1,13 +1,24 @@
 package com.example.game_service_api.services;
 
+import com.example.events.ParticipationEvent;
+import com.example.game_service_api.commons.dto.CursorPage;
+import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.dto.TimePlayedStats;
 import com.example.game_service_api.commons.entities.GameParticipation;
 import java.util.List;
 
 public interface GameParticipationService {
     GameParticipation joinGame(Long userId, Long gameId);
     GameParticipation leaveGame(Long userId, Long gameId);
-    GameParticipation getParticipation(Long userId, Long gameId);
-    List<GameParticipation> getGameParticipants(Long gameId);
+    void heartbeat(Long userId, Long gameId);
+    List<GameParticipation> joinGames(List<ParticipationRequest> requests);
+    List<GameParticipation> leaveGames(List<ParticipationRequest> requests);
+    void applyParticipationEvents(List<ParticipationEvent> events);
+    GameParticipationDTO getParticipation(Long userId, Long gameId);
+    List<GameParticipationDTO> getGameParticipants(Long gameId);
+    CursorPage<GameParticipationDTO> getUserHistory(Long userId, String cursor, int limit);
     int getActiveParticipantsCount(Long gameId);
     Double getAverageTimePlayedForGame(Long gameId);
+    TimePlayedStats getTimePlayedStats(Long gameId);
 }
@@ -0,0 +1,13 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.dto.GameRankingDTO;
+import com.example.game_service_api.commons.entities.GameStatus;
+
+import java.util.List;
+
+public interface GameRankingService {
+    void rebuildRanking();
+    void onParticipantsChanged(Long gameId, int activeParticipants);
+    void onGameChanged(Long gameId, String name, String gameType, GameStatus status);
+    List<GameRankingDTO> getTopGames(int limit);
+}
@@ -1,8 +1,14 @@
 package com.example.game_service_api.services;
 
 import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.dto.CursorPage;
 import com.example.game_service_api.commons.dto.GameCreateRequest;
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.GameRankingDTO;
+import com.example.game_service_api.commons.dto.ResourceVersion;
+import com.example.game_service_api.commons.entities.GameStatus;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface GameService {
 
@@ -11,7 +17,7 @@ public interface GameService {
 
     Game createGameFromRequest(GameCreateRequest request, Integer userId);
 
-    Game getGameById(Long id);
+    GameDTO getGameById(Long id);
 
     Game updateGame(Long id,Game gameRequest);
 
@@ -19,5 +25,17 @@ public interface GameService {
 
     List<Game> findAll();
 
-    List<Game> getAllGames();
+    List<GameDTO> getAllGames();
+
+    ResourceVersion getCatalogVersion();
+
+    ResourceVersion getGameVersion(Long id);
+
+    void exportGames(Consumer<GameDTO> consumer);
+
+    List<GameRankingDTO> getTopGames(int limit);
+
+    List<GameDTO> searchGames(String query, String gameType, int limit);
+
+    CursorPage<GameDTO> getGamesPage(GameStatus status, String gameType, Boolean isPublic, String cursor, int limit);
 }
@@ -0,0 +1,10 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.dto.LiveGameStatsDTO;
+
+import java.util.List;
+
+public interface LiveGameStatsService {
+    LiveGameStatsDTO getGameStats(Long gameId, int windowMinutes, boolean localOnly);
+    List<LiveGameStatsDTO> getAllGameStats(int windowMinutes, boolean localOnly);
+}
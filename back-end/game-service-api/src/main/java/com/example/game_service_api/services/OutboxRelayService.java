@@ -0,0 +1,6 @@
+package com.example.game_service_api.services;
+
+public interface OutboxRelayService {
+    int relayPendingEvents();
+    void requestRelay();
+}
@@ -0,0 +1,5 @@
+package com.example.game_service_api.services;
+
+public interface ParticipationArchiveService {
+    int archiveClosedParticipations();
+}
@@ -0,0 +1,20 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.entities.GameParticipation;
+
+import java.util.List;
+
+public interface ParticipationCounterService {
+    void rebuildFromGames();
+    int recordJoin(Long gameId);
+    int recordLeave(Long participationId, Long gameId, int minutesPlayed);
+    void recordPersistedJoins(List<GameParticipation> created);
+    void recordPersistedLeaves(List<GameParticipation> closed);
+    int getActiveParticipants(Long gameId);
+    double getAverageTimePlayed(Long gameId);
+    long getFingerprint();
+    long getFingerprint(Long gameId);
+    long getLastChangedAt();
+    long getLastChangedAt(Long gameId);
+    void flushToGames();
+}
@@ -0,0 +1,13 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.dto.DailyPlaytimeStatsDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ParticipationRollupService {
+    int rollupClosedParticipations();
+    LocalDateTime getWatermark();
+    List<DailyPlaytimeStatsDTO> getDailyStats(LocalDate from, LocalDate to, Long gameId, String gameType, String groupBy);
+}
@@ -0,0 +1,16 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.dto.GameParticipationDTO;
+
+import java.util.List;
+
+public interface PresenceRegistryService {
+    void rebuildPresence();
+    void onJoined(GameParticipationDTO participation);
+    void onLeft(GameParticipationDTO participation);
+    GameParticipationDTO getParticipation(Long gameId, Long userId);
+    List<GameParticipationDTO> getParticipants(Long gameId);
+    int getActiveCount(Long gameId);
+    long getDigest();
+    long getDigest(Long gameId);
+}
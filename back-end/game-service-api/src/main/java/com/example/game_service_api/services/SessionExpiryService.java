@@ -0,0 +1,9 @@
+package com.example.game_service_api.services;
+
+public interface SessionExpiryService {
+    void rebuildSessions();
+    void track(Long userId, Long gameId);
+    boolean heartbeat(Long userId, Long gameId);
+    void untrack(Long userId, Long gameId);
+    void advance();
+}
@@ -0,0 +1,13 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.dto.TimePlayedStats;
+
+public interface TimePlayedStatsService {
+    void loadHistograms();
+    void recordSession(Long gameId, int minutesPlayed);
+    TimePlayedStats getStats(Long gameId);
+    long getLastUpdatedAt();
+    long getDigest();
+    long getLastUpdatedAt(Long gameId);
+    void flushHistograms();
+}
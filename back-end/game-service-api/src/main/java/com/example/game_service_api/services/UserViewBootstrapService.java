@@ -0,0 +1,7 @@
+package com.example.game_service_api.services;
+
+import com.example.game_service_api.commons.dto.UserViewBootstrapProgress;
+
+public interface UserViewBootstrapService {
+    UserViewBootstrapProgress getProgress();
+}
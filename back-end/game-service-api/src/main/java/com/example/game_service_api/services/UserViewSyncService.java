@@ -0,0 +1,12 @@
+package com.example.game_service_api.services;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface UserViewSyncService {
+    int applyUserEvents(List<ConsumerRecord<String, byte[]>> records);
+    int removeUsersNotIn(Collection<Long> userIds, LocalDateTime unchangedSince);
+}
@@ -0,0 +1,94 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.services.DatabaseIndexInitializerService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Crea los índices y tablas específicos de PostgreSQL que JPA no puede declarar
+ * (índices de expresión, GIN, parciales, tablas particionadas...). Depende del EntityManagerFactory para
+ * ejecutarse después de que Hibernate haya actualizado el esquema.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class DatabaseIndexInitializerServiceImpl implements DatabaseIndexInitializerService {
+    private static final Logger log = LoggerFactory.getLogger(DatabaseIndexInitializerServiceImpl.class);
+
+    private static final List<String> STATEMENTS = List.of(
+            // Búsqueda por subcadena en el nombre del juego (LIKE '%texto%') con índice de trigramas
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_games_name_trgm ON games USING gin (lower(name) gin_trgm_ops)",
+            // Los ids de participaciones los toma el INSERT nativo con nextval, sin el optimizador por bloques de Hibernate:
+            // con el incremento de 50 que usaba este cada inserción gastaba 50 ids
+            "CREATE SEQUENCE IF NOT EXISTS game_participations_seq",
+            "ALTER SEQUENCE game_participations_seq INCREMENT BY 1",
+            // Una sola participación activa por usuario y juego; antes de crear el índice se cierran los duplicados
+            // que pudiera haber dejado el antiguo "comprobar y luego insertar", conservando la más reciente
+            "UPDATE game_participations gp SET is_active = false, left_at = COALESCE(gp.left_at, gp.joined_at), " +
+                    "time_played_minutes = COALESCE(gp.time_played_minutes, 0) " +
+                    "WHERE gp.is_active AND EXISTS (SELECT 1 FROM game_participations newer " +
+                    "WHERE newer.user_id = gp.user_id AND newer.game_id = gp.game_id AND newer.is_active AND newer.id > gp.id)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS ux_game_participations_active_user_game " +
+                    "ON game_participations (user_id, game_id) WHERE is_active",
+            // Historial por usuario: el índice cubre el orden keyset y todas las columnas leídas de la participación
+            "CREATE INDEX IF NOT EXISTS idx_game_participations_user_history ON game_participations " +
+                    "(user_id, joined_at DESC, id DESC) INCLUDE (game_id, left_at, is_active, time_played_minutes)",
+            // Las consultas calientes solo miran participaciones activas o recién cerradas
+            "CREATE INDEX IF NOT EXISTS idx_game_participations_active_game ON game_participations (game_id) WHERE is_active",
+            "CREATE INDEX IF NOT EXISTS idx_game_participations_closed_left_at ON game_participations (left_at, id) WHERE NOT is_active",
+            // Archivo de sesiones cerradas, particionado por mes de joined_at (ver ParticipationArchiveServiceImpl).
+            // Las particiones mensuales las crea el archivado; la DEFAULT recoge lo que no encaje en ninguna
+            "CREATE TABLE IF NOT EXISTS game_participations_archive (" +
+                    "id bigint NOT NULL, user_id bigint, game_id bigint, joined_at timestamp(6), left_at timestamp(6), " +
+                    "is_active boolean, time_played_minutes integer) PARTITION BY RANGE (joined_at)",
+            "CREATE TABLE IF NOT EXISTS game_participations_archive_default PARTITION OF game_participations_archive DEFAULT",
+            "CREATE INDEX IF NOT EXISTS idx_game_participations_archive_user_history ON game_participations_archive " +
+                    "(user_id, joined_at DESC, id DESC) INCLUDE (game_id, left_at, is_active, time_played_minutes)",
+            // Incrementos de los contadores de participación aún sin sumar a games (ver ParticipationCounterServiceImpl)
+            "CREATE TABLE IF NOT EXISTS game_counter_deltas (" +
+                    "id bigserial PRIMARY KEY, game_id bigint NOT NULL, active_delta integer NOT NULL, " +
+                    "sessions_delta integer NOT NULL, minutes_delta bigint NOT NULL)",
+            // Agregaciones diarias de tiempo jugado y su marca de agua (ver ParticipationRollupServiceImpl)
+            "CREATE TABLE IF NOT EXISTS game_daily_stats (" +
+                    "day date NOT NULL, game_id bigint NOT NULL, game_type varchar(255), " +
+                    "sessions bigint NOT NULL DEFAULT 0, total_minutes bigint NOT NULL DEFAULT 0, max_minutes integer NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (day, game_id))",
+            "CREATE INDEX IF NOT EXISTS idx_game_daily_stats_type_day ON game_daily_stats (game_type, day)",
+            "CREATE TABLE IF NOT EXISTS rollup_watermarks (" +
+                    "name varchar(100) PRIMARY KEY, last_left_at timestamp(6) NOT NULL, last_id bigint NOT NULL, updated_at timestamp(6))",
+            "INSERT INTO rollup_watermarks (name, last_left_at, last_id) " +
+                    "VALUES ('participation_daily_stats', '1970-01-01', 0) ON CONFLICT (name) DO NOTHING",
+            // El outbox guardaba JSON en texto y ahora guarda el evento codificado; ddl-auto no cambia tipos de columna.
+            // Los eventos pendientes se convierten a sus bytes UTF-8 y los consumidores los leen como JSON
+            "DO $$ BEGIN IF EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name = 'outbox_events' " +
+                    "AND column_name = 'payload' AND data_type = 'text') THEN " +
+                    "ALTER TABLE outbox_events ALTER COLUMN payload TYPE bytea USING convert_to(payload, 'UTF8'); END IF; END $$"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DatabaseIndexInitializerServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    @Override
+    public void ensureIndexesExist() {
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                // Sin el índice las consultas siguen funcionando, solo que con un recorrido secuencial
+                log.warn("No se pudo ejecutar '{}': {}", statement, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.repositories.GameRepository;
+import com.example.game_service_api.services.GameCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caché de lectura delante de las búsquedas de juegos por id.
+ * Las entradas se invalidan al modificar un juego en esta réplica y al recibir
+ * los eventos de Kafka de creación o cambio de estado emitidos por cualquier réplica.
+ */
+@Service
+public class GameCacheServiceImpl implements GameCacheService {
+    public static final String GAMES_CACHE = "games";
+
+    private final GameRepository gameRepository;
+
+    @Autowired
+    public GameCacheServiceImpl(GameRepository gameRepository) {
+        this.gameRepository = gameRepository;
+    }
+
+    // Los juegos inexistentes no se guardan para que un juego recién creado se encuentre de inmediato
+    @Cacheable(cacheNames = GAMES_CACHE, key = "#id", unless = "#result == null")
+    @Override
+    public GameDTO findById(Long id) {
+        return gameRepository.findGameDTOById(id).orElse(null);
+    }
+
+    @CacheEvict(cacheNames = GAMES_CACHE, key = "#id")
+    @Override
+    public void evict(Long id) {
+        // La anotación @CacheEvict elimina la entrada de la caché
+    }
+}
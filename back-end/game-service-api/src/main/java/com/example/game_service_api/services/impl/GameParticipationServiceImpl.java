@@ -1,22 +1,53 @@
 package com.example.game_service_api.services.impl;
 
-import com.example.game_service_api.commons.entities.Game;
+import com.example.events.ParticipationEvent;
+import com.example.game_service_api.commons.dto.CursorPage;
+import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.dto.TimePlayedStats;
 import com.example.game_service_api.commons.entities.GameParticipation;
-import com.example.game_service_api.commons.entities.UserView;
+import com.example.game_service_api.commons.exceptions.GameException;
+import com.example.game_service_api.commons.utils.EventDeduplicator;
+import com.example.game_service_api.commons.utils.KeysetCursor;
+import com.example.game_service_api.kafka.GameEventProducer;
 import com.example.game_service_api.repositories.GameParticipationRepository;
 import com.example.game_service_api.repositories.GameRepository;
 import com.example.game_service_api.repositories.UserViewRepository;
 import com.example.game_service_api.services.GameParticipationService;
+import com.example.game_service_api.services.GameRankingService;
+import com.example.game_service_api.services.OutboxRelayService;
+import com.example.game_service_api.services.ParticipationCounterService;
+import com.example.game_service_api.services.PresenceRegistryService;
+import com.example.game_service_api.services.SessionExpiryService;
+import com.example.game_service_api.services.TimePlayedStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class GameParticipationServiceImpl implements GameParticipationService {
+    private static final Logger log = LoggerFactory.getLogger(GameParticipationServiceImpl.class);
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     private GameParticipationRepository participationRepository;
@@ -27,97 +58,304 @@ public class GameParticipationServiceImpl implements GameParticipationService {
     @Autowired
     private UserViewRepository userViewRepository;
 
+    @Autowired
+    private ParticipationCounterService counterService;
+
+    @Autowired
+    private GameRankingService rankingService;
+
+    @Autowired
+    private PresenceRegistryService presenceRegistry;
+
+    @Autowired
+    private SessionExpiryService sessionExpiry;
+
+    @Autowired
+    private TimePlayedStatsService timePlayedStats;
+
+    @Autowired
+    private GameEventProducer gameEventProducer;
+
+    @Autowired
+    private OutboxRelayService outboxRelay;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // Ids de los eventos de participación ya aplicados en esta réplica, lleguen por el commit local o por Kafka
+    private final EventDeduplicator appliedEvents;
+
+    @Autowired
+    public GameParticipationServiceImpl(@Value("${kafka.dedup.capacity:100000}") int dedupCapacity) {
+        this.appliedEvents = new EventDeduplicator(dedupCapacity);
+    }
+
     @Override
+    @Transactional
     public GameParticipation joinGame(Long userId, Long gameId) {
-        System.out.println("=== JOIN GAME START ===");
-        System.out.println("Attempting to join game: userId=" + userId + ", gameId=" + gameId);
-        
-        // Verificar si ya existe una participación activa
-        Optional<GameParticipation> existingParticipation = 
-            participationRepository.findByUserIdAndGameIdAndIsActiveTrue(userId, gameId);
-        
-        if (existingParticipation.isPresent()) {
-            System.out.println("User " + userId + " is already participating in game " + gameId);
-            System.out.println("Existing participation details: " + existingParticipation.get());
-            return existingParticipation.get(); // Ya está participando
-        }
-        
-        // Crear nueva participación
-        Game game = gameRepository.findById(gameId)
-            .orElseThrow(() -> new RuntimeException("Juego no encontrado"));
-            
-        UserView user = userViewRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-            
-        GameParticipation participation = new GameParticipation();
-        participation.setUser(user);
-        participation.setGame(game);
-        participation.setJoinedAt(LocalDateTime.now());
-        participation.setIsActive(true);
-        participation.setTimePlayedMinutes(0);
-        
-        GameParticipation saved = participationRepository.save(participation);
-        System.out.println("Created new participation: " + saved);
-        System.out.println("Is Active: " + saved.getIsActive());
-        System.out.println("=== JOIN GAME END ===");
-        return saved;
+        // Inserción condicional sobre el índice único parcial: dos clics simultáneos no crean dos filas activas,
+        // la segunda inserción simplemente no hace nada y devuelve la participación existente
+        List<GameParticipation> participations = upsertActive(List.of(new ParticipationRequest(userId, gameId)));
+        if (participations.isEmpty()) {
+            throw new GameException(HttpStatus.CONFLICT, "No se pudo registrar la participación, inténtalo de nuevo");
+        }
+
+        GameParticipation participation = participations.get(0);
+        log.debug("Participación activa {}: userId={}, gameId={}", participation.getId(), userId, gameId);
+        return participation;
     }
 
     @Override
+    @Transactional
     public GameParticipation leaveGame(Long userId, Long gameId) {
-        GameParticipation participation = participationRepository
-            .findByUserIdAndGameIdAndIsActiveTrue(userId, gameId)
-            .orElseThrow(() -> new RuntimeException("No hay participación activa para este usuario y juego"));
-            
-        LocalDateTime leftAt = LocalDateTime.now();
-        participation.setLeftAt(leftAt);
-        participation.setIsActive(false);
-        
-        // Calcular tiempo jugado en minutos
-        Duration duration = Duration.between(participation.getJoinedAt(), leftAt);
-        int minutesPlayed = (int) duration.toMinutes();
-        participation.setTimePlayedMinutes(minutesPlayed);
-        
-        return participationRepository.save(participation);
+        List<GameParticipation> closed = closeActive(List.of(new ParticipationRequest(userId, gameId)));
+        if (closed.isEmpty()) {
+            throw new GameException(HttpStatus.NOT_FOUND, "No hay participación activa para este usuario y juego");
+        }
+        return closed.get(0);
     }
 
     @Override
-    public GameParticipation getParticipation(Long userId, Long gameId) {
-        return participationRepository
-            .findByUserIdAndGameIdAndIsActiveTrue(userId, gameId)
-            .orElse(null);
+    public void heartbeat(Long userId, Long gameId) {
+        if (sessionExpiry.heartbeat(userId, gameId)) {
+            return;
+        }
+        // Sin sesión vigilada: o ya expiró, o la unión todavía no ha llegado a esta réplica
+        if (presenceRegistry.getParticipation(gameId, userId) == null) {
+            throw new GameException(HttpStatus.NOT_FOUND, "No hay participación activa para este usuario y juego");
+        }
+        sessionExpiry.track(userId, gameId);
+        sessionExpiry.heartbeat(userId, gameId);
     }
 
     @Override
-    public List<GameParticipation> getGameParticipants(Long gameId) {
-        return participationRepository.findByGameIdAndIsActiveTrue(gameId);
+    @Transactional
+    public List<GameParticipation> joinGames(List<ParticipationRequest> requests) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> gameIds = new HashSet<>();
+        for (ParticipationRequest request : requests) {
+            userIds.add(request.getUserId());
+            gameIds.add(request.getGameId());
+        }
+
+        // Se validan usuarios y juegos con una consulta IN cada uno para devolver un 404 con los ids que faltan
+        Set<Long> missingUsers = new HashSet<>(userIds);
+        userViewRepository.findAllById(userIds).forEach(user -> missingUsers.remove(user.getId()));
+        Set<Long> missingGames = new HashSet<>(gameIds);
+        gameRepository.findAllById(gameIds).forEach(game -> missingGames.remove(game.getId()));
+        if (!missingUsers.isEmpty() || !missingGames.isEmpty()) {
+            throw new GameException(HttpStatus.NOT_FOUND,
+                "Usuarios no encontrados: " + missingUsers + ", juegos no encontrados: " + missingGames);
+        }
+
+        return upsertActive(requests);
     }
 
     @Override
-    public int getActiveParticipantsCount(Long gameId) {
+    @Transactional
+    public List<GameParticipation> leaveGames(List<ParticipationRequest> requests) {
+        // Las participaciones sin sesión activa se ignoran: salir de un juego dos veces no es un error en lote
+        return closeActive(requests);
+    }
+
+    // Crea las participaciones activas que falten con un único INSERT ... ON CONFLICT DO NOTHING y devuelve
+    // la participación activa de cada par pedido, sea la recién creada o la que ya existía
+    private List<GameParticipation> upsertActive(List<ParticipationRequest> requests) {
+        Set<Long> insertedIds;
         try {
-            System.out.println("=== GET ACTIVE PARTICIPANTS START ===");
-            System.out.println("Checking active participants for game: " + gameId);
-            int count = participationRepository.countByGameIdAndIsActiveTrue(gameId);
-            System.out.println("Found " + count + " active participants for game " + gameId);
-            System.out.println("=== GET ACTIVE PARTICIPANTS END ===");
-            return count;
-        } catch (Exception e) {
-            System.err.println("Error counting active participants for game " + gameId);
-            e.printStackTrace();
-            return 0;
+            insertedIds = new HashSet<>(participationRepository.insertActiveIfAbsent(requests, LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Viola la clave foránea: el usuario o el juego no existen
+            throw new GameException(HttpStatus.NOT_FOUND, "Usuario o juego no encontrado");
+        }
+
+        List<GameParticipation> participations = findActive(requests);
+        List<GameParticipation> created = participations.stream()
+            .filter(participation -> insertedIds.contains(participation.getId()))
+            .toList();
+        // Los eventos van al outbox y los incrementos de los contadores a games en esta misma transacción
+        List<ParticipationEvent> events = gameEventProducer.sendParticipationJoinedEvents(created);
+        counterService.recordPersistedJoins(created);
+        afterCommit(() -> {
+            applyParticipationEvents(events);
+            outboxRelay.requestRelay();
+        });
+        return participations;
+    }
+
+    // Cierra las participaciones activas pedidas con un UPDATE condicional (WHERE is_active) en lote.
+    // Si dos salidas llegan a la vez solo una actualiza la fila, y solo esa descuenta al participante
+    private List<GameParticipation> closeActive(List<ParticipationRequest> requests) {
+        LocalDateTime leftAt = LocalDateTime.now();
+        List<GameParticipation> candidates = findActive(requests);
+        for (GameParticipation participation : candidates) {
+            participation.setLeftAt(leftAt);
+            participation.setIsActive(false);
+            participation.setTimePlayedMinutes((int) Duration.between(participation.getJoinedAt(), leftAt).toMinutes());
         }
+
+        List<GameParticipation> closed = new ArrayList<>();
+        int[] updated = candidates.isEmpty() ? new int[0] : participationRepository.closeIfActive(candidates);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                closed.add(candidates.get(i));
+            }
+        }
+
+        List<ParticipationEvent> events = gameEventProducer.sendParticipationLeftEvents(closed);
+        counterService.recordPersistedLeaves(closed);
+        afterCommit(() -> {
+            // Los histogramas se suman en cada volcado: solo los alimenta la réplica que cierra la sesión
+            closed.forEach(participation ->
+                timePlayedStats.recordSession(participation.getGame().getId(), participation.getTimePlayedMinutes()));
+            applyParticipationEvents(events);
+            outboxRelay.requestRelay();
+        });
+        return closed;
     }
 
+    // Participaciones activas de los pares pedidos, en el orden de la petición y sin repetidos
+    private List<GameParticipation> findActive(List<ParticipationRequest> requests) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> gameIds = new HashSet<>();
+        for (ParticipationRequest request : requests) {
+            userIds.add(request.getUserId());
+            gameIds.add(request.getGameId());
+        }
+
+        Map<String, GameParticipation> active = new HashMap<>();
+        for (GameParticipation participation : participationRepository.findActiveByUserIdsAndGameIds(userIds, gameIds)) {
+            active.put(participationKey(participation.getUser().getId(), participation.getGame().getId()), participation);
+        }
+
+        Map<String, GameParticipation> result = new LinkedHashMap<>();
+        for (ParticipationRequest request : requests) {
+            String key = participationKey(request.getUserId(), request.getGameId());
+            GameParticipation participation = active.get(key);
+            if (participation != null) {
+                result.putIfAbsent(key, participation);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Actualiza las estructuras en memoria (contadores, ranking, presencia y latidos) con entradas y salidas ya
+     * confirmadas, y avisa por WebSocket a los clientes conectados a esta réplica con un mensaje por juego.
+     * Llegan por dos caminos: el commit local de quien atiende la petición y ParticipationEventListener para las
+     * de las demás réplicas. La réplica de origen recibe también sus propios eventos de Kafka, así que cada id se
+     * aplica una sola vez.
+     */
     @Override
-    public Double getAverageTimePlayedForGame(Long gameId) {
+    public void applyParticipationEvents(List<ParticipationEvent> events) {
+        Map<Long, List<GameParticipationDTO>> changesByGame = new LinkedHashMap<>();
+        for (ParticipationEvent event : events) {
+            if (event.getEventId() != null && !appliedEvents.markIfAbsent(event.getEventId())) {
+                continue;
+            }
+            GameParticipationDTO participation = GameParticipationDTO.from(event);
+            Long gameId = participation.getGameId();
+            int activeParticipants;
+            // La presencia va primero: de ella sale el número de participantes activos
+            if (ParticipationEvent.JOINED.equals(event.getEventType())) {
+                presenceRegistry.onJoined(participation);
+                activeParticipants = counterService.recordJoin(gameId);
+                // Todas las réplicas vigilan los latidos de todas las sesiones (ver SessionExpiryServiceImpl)
+                sessionExpiry.track(participation.getUserId(), gameId);
+            } else {
+                int minutesPlayed = participation.getTimePlayedMinutes() != null ? participation.getTimePlayedMinutes() : 0;
+                presenceRegistry.onLeft(participation);
+                activeParticipants = counterService.recordLeave(participation.getId(), gameId, minutesPlayed);
+                sessionExpiry.untrack(participation.getUserId(), gameId);
+            }
+            rankingService.onParticipantsChanged(gameId, activeParticipants);
+            changesByGame.computeIfAbsent(gameId, id -> new ArrayList<>()).add(participation);
+        }
+        changesByGame.forEach(this::notifyParticipantsChanged);
+    }
+
+    private void notifyParticipantsChanged(Long gameId, List<GameParticipationDTO> changes) {
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "PARTICIPANTS_CHANGED");
+        notification.put("gameId", gameId);
+        notification.put("activeParticipants", counterService.getActiveParticipants(gameId));
+        notification.put("changes", changes);
         try {
-            Double avg = participationRepository.calculateAverageTimePlayedForGame(gameId);
-            System.out.println("Calculating average time played for game " + gameId + ": " + avg);
-            return avg != null ? avg : 0.0;
-        } catch (Exception e) {
-            System.err.println("Error calculating average time for game " + gameId + ": " + e.getMessage());
-            return 0.0;
+            messagingTemplate.convertAndSend("/topic/games/" + gameId + "/participants", notification);
+        } catch (MessagingException e) {
+            // El estado ya está aplicado; los clientes que pierdan el aviso lo recuperan en su siguiente consulta
+            log.warn("No se pudo notificar el cambio de participantes del juego {}: {}", gameId, e.getMessage());
+        }
+    }
+
+    // Ejecuta la acción solo si la transacción actual se confirma, para no contar cambios que se deshacen
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String participationKey(Long userId, Long gameId) {
+        return userId + ":" + gameId;
+    }
+
+    // Se responden desde el registro de presencia, sin consultar la base de datos
+    @Override
+    public GameParticipationDTO getParticipation(Long userId, Long gameId) {
+        return presenceRegistry.getParticipation(gameId, userId);
+    }
+
+    @Override
+    public List<GameParticipationDTO> getGameParticipants(Long gameId) {
+        return presenceRegistry.getParticipants(gameId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<GameParticipationDTO> getUserHistory(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime afterJoinedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+            try {
+                afterJoinedAt = LocalDateTime.parse(keysetCursor.getSortValue());
+            } catch (DateTimeParseException e) {
+                throw new GameException(HttpStatus.BAD_REQUEST, "Cursor de paginación no válido");
+            }
+            afterId = keysetCursor.getId();
         }
+
+        // Se pide una fila de más para saber si existe una página siguiente sin lanzar un COUNT
+        List<GameParticipationDTO> history = participationRepository.findUserHistory(userId, afterJoinedAt, afterId, pageSize + 1);
+
+        boolean hasNext = history.size() > pageSize;
+        if (hasNext) {
+            history = history.subList(0, pageSize);
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            GameParticipationDTO last = history.get(history.size() - 1);
+            nextCursor = new KeysetCursor(last.getJoinedAt().toString(), last.getId()).encode();
+        }
+        return new CursorPage<>(history, nextCursor, hasNext);
+    }
+
+    @Override
+    public int getActiveParticipantsCount(Long gameId) {
+        return counterService.getActiveParticipants(gameId);
+    }
+
+    @Override
+    public Double getAverageTimePlayedForGame(Long gameId) {
+        return counterService.getAverageTimePlayed(gameId);
+    }
+
+    @Override
+    public TimePlayedStats getTimePlayedStats(Long gameId) {
+        return timePlayedStats.getStats(gameId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.GameRankingDTO;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.repositories.GameRepository;
+import com.example.game_service_api.services.GameCacheService;
+import com.example.game_service_api.services.GameRankingService;
+import com.example.game_service_api.services.ParticipationCounterService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ranking en memoria de los juegos activos ordenados por participantes activos.
+ * Se actualiza al unirse o salir de un juego y al cambiar su estado, de modo que
+ * el top-K se obtiene recorriendo las K primeras entradas sin consultar la base de datos.
+ */
+@Service
+public class GameRankingServiceImpl implements GameRankingService {
+    private static final Logger log = LoggerFactory.getLogger(GameRankingServiceImpl.class);
+
+    private static final Comparator<RankEntry> RANKING_ORDER = Comparator
+            .comparingInt(RankEntry::activeParticipants).reversed()
+            .thenComparingLong(RankEntry::gameId);
+
+    private final GameRepository gameRepository;
+    private final ParticipationCounterService counterService;
+    private final GameCacheService gameCacheService;
+
+    private final NavigableSet<RankEntry> ranking = new ConcurrentSkipListSet<>(RANKING_ORDER);
+    private final Map<Long, RankEntry> entriesByGame = new ConcurrentHashMap<>();
+    private final Map<Long, GameInfo> gamesInfo = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GameRankingServiceImpl(
+            GameRepository gameRepository,
+            ParticipationCounterService counterService,
+            GameCacheService gameCacheService) {
+        this.gameRepository = gameRepository;
+        this.counterService = counterService;
+        this.gameCacheService = gameCacheService;
+    }
+
+    /**
+     * Reconstruye el ranking al arrancar a partir de los juegos activos y los contadores de participación
+     */
+    @PostConstruct
+    @Override
+    public void rebuildRanking() {
+        for (GameDTO game : gameRepository.findGameDTOsByStatus(GameStatus.ACTIVO)) {
+            gamesInfo.put(game.getId(), new GameInfo(game.getName(), game.getGameType(), game.getStatus()));
+            updateEntry(game.getId(), counterService.getActiveParticipants(game.getId()));
+        }
+        log.info("Ranking de juegos reconstruido con {} juegos con participantes", entriesByGame.size());
+    }
+
+    @Override
+    public void onParticipantsChanged(Long gameId, int activeParticipants) {
+        GameInfo info = gameInfoFor(gameId);
+        if (info == null || info.status() != GameStatus.ACTIVO) {
+            removeEntry(gameId);
+            return;
+        }
+        updateEntry(gameId, activeParticipants);
+    }
+
+    @Override
+    public void onGameChanged(Long gameId, String name, String gameType, GameStatus status) {
+        // Solo los juegos en estado ACTIVO forman parte del ranking; del resto no se guarda nada
+        if (status == GameStatus.ACTIVO) {
+            gamesInfo.put(gameId, new GameInfo(name, gameType, status));
+            updateEntry(gameId, counterService.getActiveParticipants(gameId));
+        } else {
+            gamesInfo.remove(gameId);
+            removeEntry(gameId);
+        }
+    }
+
+    @Override
+    public List<GameRankingDTO> getTopGames(int limit) {
+        List<GameRankingDTO> topGames = new ArrayList<>(limit);
+        Iterator<RankEntry> iterator = ranking.iterator();
+        while (iterator.hasNext() && topGames.size() < limit) {
+            RankEntry entry = iterator.next();
+            GameInfo info = gamesInfo.get(entry.gameId());
+            topGames.add(new GameRankingDTO(
+                    entry.gameId(),
+                    info != null ? info.name() : null,
+                    info != null ? info.gameType() : null,
+                    entry.activeParticipants()));
+        }
+        return topGames;
+    }
+
+    // Sustituye la entrada del juego; compute() serializa las actualizaciones de un mismo juego.
+    // Si el juego se canceló mientras tanto ya no está en gamesInfo y no se vuelve a añadir
+    private void updateEntry(Long gameId, int activeParticipants) {
+        if (activeParticipants <= 0) {
+            removeEntry(gameId);
+            return;
+        }
+        entriesByGame.compute(gameId, (id, previous) -> {
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            if (!gamesInfo.containsKey(id)) {
+                return null;
+            }
+            RankEntry entry = new RankEntry(id, activeParticipants);
+            ranking.add(entry);
+            return entry;
+        });
+    }
+
+    private void removeEntry(Long gameId) {
+        entriesByGame.computeIfPresent(gameId, (id, previous) -> {
+            ranking.remove(previous);
+            return null;
+        });
+    }
+
+    // Los juegos creados en otra réplica se resuelven a través de la caché de juegos; solo se recuerdan los activos
+    private GameInfo gameInfoFor(Long gameId) {
+        GameInfo info = gamesInfo.get(gameId);
+        if (info == null) {
+            GameDTO game = gameCacheService.findById(gameId);
+            if (game != null) {
+                info = new GameInfo(game.getName(), game.getGameType(), game.getStatus());
+                if (info.status() == GameStatus.ACTIVO) {
+                    gamesInfo.put(gameId, info);
+                }
+            }
+        }
+        return info;
+    }
+
+    private record RankEntry(long gameId, int activeParticipants) {
+    }
+
+    private record GameInfo(String name, String gameType, GameStatus status) {
+    }
+}
@@ -1,22 +1,45 @@
 package com.example.game_service_api.services.impl;
 
+import com.example.game_service_api.commons.dto.CursorPage;
+import com.example.game_service_api.commons.dto.GameCatalogVersion;
 import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.GameRankingDTO;
+import com.example.game_service_api.commons.dto.ResourceVersion;
+import com.example.game_service_api.commons.dto.TimePlayedStats;
 import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.exceptions.GameException;
+import com.example.game_service_api.commons.utils.KeysetCursor;
 import com.example.game_service_api.repositories.GameRepository;
 import com.example.game_service_api.services.GameParticipationService;
+import com.example.game_service_api.services.GameRankingService;
+import com.example.game_service_api.services.GameCacheService;
 import com.example.game_service_api.services.GameService;
+import com.example.game_service_api.services.ParticipationCounterService;
+import com.example.game_service_api.services.TimePlayedStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import com.example.game_service_api.commons.entities.GameStatus;
 import com.example.game_service_api.kafka.GameEventProducer;
 import com.example.game_service_api.commons.dto.GameCreateRequest;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class GameServiceImpl implements GameService {
+    private static final Logger log = LoggerFactory.getLogger(GameServiceImpl.class);
 
     private final GameRepository gameRepository;
     private final GameEventProducer gameEventProducer;
@@ -24,18 +47,45 @@ public class GameServiceImpl implements GameService {
     @Autowired
     private GameParticipationService participationService;
 
+    @Autowired
+    private ParticipationCounterService participationCounters;
+
+    @Autowired
+    private GameCacheService gameCacheService;
+
+    @Autowired
+    private GameRankingService gameRankingService;
+
+    @Autowired
+    private TimePlayedStatsService timePlayedStats;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     public GameServiceImpl(GameRepository gameRepository, GameEventProducer gameEventProducer) {
         this.gameRepository = gameRepository;
         this.gameEventProducer = gameEventProducer;
     }
 
     @Override
+    @Transactional // El evento se guarda en el outbox en la misma transacción que el juego
     public Game saveGame(Game gameRequest) {
+        // La paginación ordena por createdAt, así que todo juego nuevo debe tenerlo informado
+        if (gameRequest.getCreatedAt() == null) {
+            Date now = new Date();
+            gameRequest.setCreatedAt(now);
+            gameRequest.setLastUpdated(now);
+        }
+        // Los contadores no se aceptan del cliente: un juego nuevo no tiene participaciones
+        gameRequest.setActiveParticipantsCount(0);
+        gameRequest.setTotalSessions(0L);
+        gameRequest.setTotalMinutesPlayed(0L);
         Game savedGame = this.gameRepository.save(gameRequest);
+        afterCommit(() -> notifyRanking(savedGame));
         gameEventProducer.sendGameCreatedEvent(savedGame);
         return savedGame;
     }
     @Override 
+    @Transactional
     public Game createGameFromRequest(GameCreateRequest request, Integer userId) {
         Game game = new Game();
         game.setName(request.getName());
@@ -54,19 +104,27 @@ public class GameServiceImpl implements GameService {
         game.setTimeElapsed(0L);
         
         Game savedGame = gameRepository.save(game);
+        afterCommit(() -> notifyRanking(savedGame));
         // Activar el evento de Kafka para notificar la creación del juego
         gameEventProducer.sendGameCreatedEvent(savedGame);
         return savedGame;
     }
 
     @Override
-    public Game getGameById(Long id) {
-        return this.gameRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Error Game Not Found"));
+    public GameDTO getGameById(Long id) {
+        GameDTO cachedGame = this.gameCacheService.findById(id);
+        if (cachedGame == null) {
+            throw new RuntimeException("Error Game Not Found");
+        }
+        // Las métricas se leen de los contadores en cada petición sobre una copia, no se guardan en la caché
+        GameDTO game = cachedGame.copy();
+        applyParticipationMetrics(game);
+        return game;
     }
 
 
     @Override
+    @Transactional
     public Game updateGame(Long id, Game gameRequest) {
        Game existingGame = this.gameRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Error Game Not Found"));
@@ -85,6 +143,11 @@ public class GameServiceImpl implements GameService {
        existingGame.setLastUpdated(new Date());
 
        Game updatedGame = gameRepository.save(existingGame);
+       // Tras el commit: antes, una lectura concurrente volvería a cachear el juego sin el cambio
+       afterCommit(() -> {
+           gameCacheService.evict(id);
+           notifyRanking(updatedGame);
+       });
        
        // Activar el evento de Kafka para notificar el cambio de estado
        gameEventProducer.sendGameStatusChangedEvent(updatedGame);
@@ -93,11 +156,18 @@ public class GameServiceImpl implements GameService {
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
-        Game game = getGameById(id);
+        // Se carga desde la base de datos, no desde la caché, porque la entidad se va a modificar
+        Game game = this.gameRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Error Game Not Found"));
         game.setStatus(GameStatus.CANCELADO);
         game.setLastUpdated(new Date());
         Game canceledGame = gameRepository.save(game);
+        afterCommit(() -> {
+            gameCacheService.evict(id);
+            notifyRanking(canceledGame);
+        });
         gameEventProducer.sendGameStatusChangedEvent(canceledGame);
 
     }
@@ -108,38 +178,144 @@ public class GameServiceImpl implements GameService {
     }
     
     @Override
-    public List<Game> getAllGames() {
-        System.out.println("=== GET ALL GAMES START ===");
-        List<Game> games = gameRepository.findAll();
-        System.out.println("Found " + games.size() + " games");
-        
-        // Actualizar las métricas de participación para cada juego
-        for (Game game : games) {
+    public List<GameDTO> getAllGames() {
+        List<GameDTO> games = gameRepository.findAllGameDTOs();
+        applyParticipationMetrics(games);
+        log.debug("Listado completo de juegos: {} juegos", games.size());
+        return games;
+    }
+
+    @Override
+    public ResourceVersion getCatalogVersion() {
+        // Solo se consultan MAX(lastUpdated) y COUNT; los cambios de participantes vienen de la huella de los contadores
+        // y los de los percentiles, de la de los histogramas cargados. Todo es estado compartido por las réplicas,
+        // así que el ETag es el mismo la atienda quien la atienda; Last-Modified usa la hora local de cada una
+        GameCatalogVersion catalog = gameRepository.findCatalogVersion();
+        long lastUpdated = catalog.getLastUpdated() != null ? catalog.getLastUpdated().getTime() : 0L;
+        long total = catalog.getTotal() != null ? catalog.getTotal() : 0L;
+        String eTag = "\"games-" + total + "-" + lastUpdated + "-" + Long.toHexString(participationCounters.getFingerprint()) +
+                "-" + Long.toHexString(timePlayedStats.getDigest()) + "\"";
+        long histograms = timePlayedStats.getLastUpdatedAt();
+        return new ResourceVersion(eTag, Math.max(Math.max(lastUpdated, participationCounters.getLastChangedAt()), histograms));
+    }
+
+    @Override
+    public ResourceVersion getGameVersion(Long id) {
+        return gameRepository.findLastUpdatedById(id)
+                .map(lastUpdatedDate -> {
+                    long lastUpdated = lastUpdatedDate.getTime();
+                    long histogram = timePlayedStats.getLastUpdatedAt(id);
+                    String eTag = "\"game-" + id + "-" + lastUpdated + "-" + Long.toHexString(participationCounters.getFingerprint(id)) + "-" + histogram + "\"";
+                    return new ResourceVersion(eTag, Math.max(Math.max(lastUpdated, participationCounters.getLastChangedAt(id)), histogram));
+                })
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportGames(Consumer<GameDTO> consumer) {
+        // Las proyecciones no son entidades gestionadas, así que el contexto de persistencia no crece
+        try (Stream<GameDTO> games = gameRepository.streamAllGameDTOs()) {
+            games.forEach(game -> {
+                applyParticipationMetrics(game);
+                consumer.accept(game);
+            });
+        }
+    }
+
+    @Override
+    public List<GameRankingDTO> getTopGames(int limit) {
+        return gameRankingService.getTopGames(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @Override
+    public List<GameDTO> searchGames(String query, String gameType, int limit) {
+        boolean hasQuery = query != null && !query.isBlank();
+        boolean hasGameType = gameType != null && !gameType.isBlank();
+        if (!hasQuery && !hasGameType) {
+            throw new GameException(HttpStatus.BAD_REQUEST, "Debe indicar un texto de búsqueda o un tipo de juego");
+        }
+
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        List<GameDTO> games;
+        if (hasQuery) {
+            String term = escapeLikePattern(query.trim().toLowerCase());
+            games = gameRepository.searchGameDTOs("%" + term + "%", term + "%", hasGameType ? gameType : null, pageable);
+        } else {
+            games = gameRepository.findGameDTOsByGameType(gameType, pageable);
+        }
+
+        applyParticipationMetrics(games);
+        return games;
+    }
+
+    @Override
+    public CursorPage<GameDTO> getGamesPage(GameStatus status, String gameType, Boolean isPublic, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Date afterCreatedAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
             try {
-                System.out.println("Processing game " + game.getId());
-                
-                // Contar participantes activos
-                int activeParticipants = participationService.getActiveParticipantsCount(game.getId());
-                System.out.println("Game " + game.getId() + " has " + activeParticipants + " active participants");
-                
-                // Calcular tiempo promedio
-                Double avgTimePlayed = participationService.getAverageTimePlayedForGame(game.getId());
-                System.out.println("Game " + game.getId() + " average time played: " + avgTimePlayed);
-                
-                // Actualizar el juego con las métricas
-                game.setActiveParticipants(activeParticipants);
-                game.setAverageTimePlayed(avgTimePlayed != null ? avgTimePlayed : 0.0);
-                
-            } catch (Exception e) {
-                System.err.println("Error processing metrics for game " + game.getId() + ": " + e.getMessage());
-                e.printStackTrace();
-                game.setActiveParticipants(0);
-                game.setAverageTimePlayed(0.0);
+                afterCreatedAt = new Date(Long.parseLong(keysetCursor.getSortValue()));
+            } catch (NumberFormatException e) {
+                throw new GameException(HttpStatus.BAD_REQUEST, "Cursor de paginación no válido");
             }
+            afterId = keysetCursor.getId();
         }
-        
-        System.out.println("=== GET ALL GAMES END ===");
-        return games;
+
+        // Se pide una fila de más para saber si existe una página siguiente sin lanzar un COUNT
+        List<GameDTO> games = new ArrayList<>(gameRepository.findPage(status, gameType, isPublic, afterCreatedAt, afterId, pageSize + 1));
+        boolean hasNext = games.size() > pageSize;
+        if (hasNext) {
+            games = games.subList(0, pageSize);
+        }
+
+        applyParticipationMetrics(games);
+
+        String nextCursor = null;
+        if (hasNext) {
+            GameDTO last = games.get(games.size() - 1);
+            nextCursor = new KeysetCursor(String.valueOf(last.getCreatedAt().getTime()), last.getId()).encode();
+        }
+        return new CursorPage<>(games, nextCursor, hasNext);
+    }
+
+    // Mantiene el ranking en memoria al día con el nombre, tipo y estado del juego
+    private void notifyRanking(Game game) {
+        gameRankingService.onGameChanged(game.getId(), game.getName(), game.getGameType(), game.getStatus());
+    }
+
+    // Ejecuta la acción solo si la transacción actual se confirma: la caché y el ranking no deben ver cambios que se deshacen
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Escapa los comodines de LIKE para que el texto del usuario se busque literalmente (carácter de escape '!')
+    private static String escapeLikePattern(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    // Asigna a cada juego las métricas de participación mantenidas en memoria (sin consultas)
+    private void applyParticipationMetrics(List<GameDTO> games) {
+        for (GameDTO game : games) {
+            applyParticipationMetrics(game);
+        }
+    }
+
+    private void applyParticipationMetrics(GameDTO game) {
+        game.setActiveParticipants(participationService.getActiveParticipantsCount(game.getId()));
+        game.setAverageTimePlayed(participationService.getAverageTimePlayedForGame(game.getId()));
+        TimePlayedStats timePlayed = participationService.getTimePlayedStats(game.getId());
+        game.setTimePlayedP50(timePlayed.getP50());
+        game.setTimePlayedP90(timePlayed.getP90());
+        game.setTimePlayedP99(timePlayed.getP99());
     }
 
 }
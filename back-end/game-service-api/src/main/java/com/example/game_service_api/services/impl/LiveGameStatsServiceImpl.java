@@ -0,0 +1,197 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.LiveGameMinuteDTO;
+import com.example.game_service_api.commons.dto.LiveGameStatsDTO;
+import com.example.game_service_api.commons.exceptions.GameException;
+import com.example.game_service_api.kafka.GameMinuteStats;
+import com.example.game_service_api.kafka.ParticipationStatsTopology;
+import com.example.game_service_api.services.LiveGameStatsService;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Estadísticas en directo por juego con interactive queries sobre los almacenes de ParticipationStatsTopology,
+ * sin consultas de agregación contra game_participations.
+ *
+ * Cada réplica solo guarda los juegos de sus particiones. Si el juego pedido vive en otra, la petición se
+ * reenvía a esa réplica (application.server) con local=true; el listado de todos los juegos junta la parte
+ * local con la de cada una de las demás réplicas.
+ */
+@Service
+public class LiveGameStatsServiceImpl implements LiveGameStatsService {
+    private static final String GAME_STATS_PATH = "/v1/game-participations/stats/live/{gameId}?minutes={minutes}&local=true";
+    private static final String ALL_STATS_PATH = "/v1/game-participations/stats/live?minutes={minutes}&local=true";
+
+    private final StreamsBuilderFactoryBean streamsFactory;
+    private final RestClient restClient;
+    private final HostInfo self;
+    private final int maxWindowMinutes;
+
+    @Autowired
+    public LiveGameStatsServiceImpl(
+            StreamsBuilderFactoryBean streamsFactory,
+            RestClient.Builder restClientBuilder,
+            @Value("${spring.kafka.streams.properties.application.server}") String applicationServer,
+            @Value("${participation.live-stats.retention-minutes:120}") int maxWindowMinutes) {
+        this.streamsFactory = streamsFactory;
+        this.restClient = restClientBuilder.build();
+        this.self = HostInfo.buildFromEndpoint(applicationServer);
+        this.maxWindowMinutes = maxWindowMinutes;
+    }
+
+    @Override
+    public LiveGameStatsDTO getGameStats(Long gameId, int windowMinutes, boolean localOnly) {
+        int window = Math.max(1, Math.min(windowMinutes, maxWindowMinutes));
+        KafkaStreams streams = runningStreams();
+        String key = gameId.toString();
+
+        if (!localOnly) {
+            KeyQueryMetadata metadata = streams.queryMetadataForKey(
+                    ParticipationStatsTopology.ACTIVE_PLAYERS_STORE, key, Serdes.String().serializer());
+            if (metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+                throw unavailable();
+            }
+            if (!self.equals(metadata.activeHost())) {
+                try {
+                    return restClient.get()
+                            .uri(baseUrl(metadata.activeHost()) + GAME_STATS_PATH, gameId, window)
+                            .retrieve()
+                            .body(LiveGameStatsDTO.class);
+                } catch (RestClientException e) {
+                    throw unavailable();
+                }
+            }
+        }
+
+        try {
+            return localStats(streams, key, window);
+        } catch (InvalidStateStoreException e) {
+            // Las particiones se están reasignando
+            throw unavailable();
+        }
+    }
+
+    @Override
+    public List<LiveGameStatsDTO> getAllGameStats(int windowMinutes, boolean localOnly) {
+        int window = Math.max(1, Math.min(windowMinutes, maxWindowMinutes));
+        KafkaStreams streams = runningStreams();
+        List<LiveGameStatsDTO> result = new ArrayList<>();
+
+        try {
+            ReadOnlyKeyValueStore<String, Long> activePlayers = activePlayersStore(streams);
+            try (KeyValueIterator<String, Long> games = activePlayers.all()) {
+                while (games.hasNext()) {
+                    LiveGameStatsDTO stats = localStats(streams, games.next().key, window);
+                    // Los juegos sin jugadores ni sesiones recientes no aportan nada al panel
+                    if (stats.getActivePlayers() > 0 || stats.getSessionsStarted() > 0 || stats.getSessionsEnded() > 0) {
+                        result.add(stats);
+                    }
+                }
+            }
+        } catch (InvalidStateStoreException e) {
+            throw unavailable();
+        }
+
+        if (!localOnly) {
+            for (StreamsMetadata metadata : streams.streamsMetadataForStore(ParticipationStatsTopology.ACTIVE_PLAYERS_STORE)) {
+                if (self.equals(metadata.hostInfo())) {
+                    continue;
+                }
+                try {
+                    List<LiveGameStatsDTO> remote = restClient.get()
+                            .uri(baseUrl(metadata.hostInfo()) + ALL_STATS_PATH, window)
+                            .retrieve()
+                            .body(new ParameterizedTypeReference<List<LiveGameStatsDTO>>() {});
+                    if (remote != null) {
+                        result.addAll(remote);
+                    }
+                } catch (RestClientException e) {
+                    throw unavailable();
+                }
+            }
+        }
+
+        result.sort(Comparator.comparing(LiveGameStatsDTO::getGameId));
+        return result;
+    }
+
+    private LiveGameStatsDTO localStats(KafkaStreams streams, String key, int window) {
+        Long activePlayers = activePlayersStore(streams).get(key);
+        ReadOnlyWindowStore<String, GameMinuteStats> minuteStats = streams.store(StoreQueryParameters.fromNameAndType(
+                ParticipationStatsTopology.MINUTE_STATS_STORE, QueryableStoreTypes.windowStore()));
+
+        Instant to = Instant.now();
+        Instant from = to.truncatedTo(ChronoUnit.MINUTES).minus(window - 1, ChronoUnit.MINUTES);
+        List<LiveGameMinuteDTO> minutes = new ArrayList<>();
+        long started = 0;
+        long ended = 0;
+        long minutesPlayed = 0;
+        try (WindowStoreIterator<GameMinuteStats> windows = minuteStats.fetch(key, from, to)) {
+            while (windows.hasNext()) {
+                KeyValue<Long, GameMinuteStats> entry = windows.next();
+                GameMinuteStats stats = entry.value;
+                minutes.add(new LiveGameMinuteDTO(Instant.ofEpochMilli(entry.key),
+                        stats.getSessionsStarted(), stats.getSessionsEnded(), stats.getMinutesPlayed()));
+                started += stats.getSessionsStarted();
+                ended += stats.getSessionsEnded();
+                minutesPlayed += stats.getMinutesPlayed();
+            }
+        }
+
+        return new LiveGameStatsDTO(
+                Long.valueOf(key),
+                activePlayers != null ? Math.max(0, activePlayers) : 0L,
+                window,
+                started,
+                (double) started / window,
+                ended,
+                ended > 0 ? (double) minutesPlayed / ended : null,
+                minutes);
+    }
+
+    private static ReadOnlyKeyValueStore<String, Long> activePlayersStore(KafkaStreams streams) {
+        return streams.store(StoreQueryParameters.fromNameAndType(
+                ParticipationStatsTopology.ACTIVE_PLAYERS_STORE, QueryableStoreTypes.keyValueStore()));
+    }
+
+    private KafkaStreams runningStreams() {
+        KafkaStreams streams = streamsFactory.getKafkaStreams();
+        if (streams == null || !streams.state().isRunningOrRebalancing()) {
+            throw unavailable();
+        }
+        return streams;
+    }
+
+    private static String baseUrl(HostInfo host) {
+        return "http://" + host.host() + ":" + host.port();
+    }
+
+    private static GameException unavailable() {
+        return new GameException(HttpStatus.SERVICE_UNAVAILABLE, "Las estadísticas en directo no están disponibles, inténtalo de nuevo");
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.entities.OutboxEvent;
+import com.example.game_service_api.repositories.OutboxEventRepository;
+import com.example.game_service_api.services.OutboxRelayService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publica en Kafka los eventos de outbox_events por lotes, fuera del hilo de las peticiones.
+ * Cada lote se envía entero (el productor idempotente agrupa los registros) y solo se borran las filas
+ * cuyo envío ha confirmado el broker; las que fallan se quedan para el siguiente ciclo con el contador
+ * de intentos incrementado, y al llegar a outbox.relay.max-attempts se apartan (failed_at) para que un
+ * evento que nunca se podrá publicar no se reintente para siempre.
+ *
+ * Solo publica la réplica que obtiene el advisory lock del ciclo, y dentro de ella un único hilo propio, así
+ * que los eventos de una misma clave salen en el orden en que se guardaron. Además
+ * del ciclo periódico, requestRelay() programa uno en cuanto se confirma una transacción con eventos, para que
+ * las demás réplicas los reciban sin esperar al siguiente intervalo. Las peticiones que llegan mientras hay un
+ * ciclo pendiente se agrupan en él, y la petición HTTP no espera ni al envío ni a la confirmación del broker.
+ */
+@Service
+public class OutboxRelayServiceImpl implements OutboxRelayService {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelayServiceImpl.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean relayOnCommit;
+    private final int maxAttempts;
+    private final ExecutorService relayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean relayRequested = new AtomicBoolean();
+
+    private final Timer batchTimer;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Counter parkedCounter;
+
+    @Autowired
+    public OutboxRelayServiceImpl(
+            OutboxEventRepository outboxEventRepository,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            TransactionTemplate transactionTemplate,
+            @Value("${outbox.relay.batch-size:500}") int batchSize,
+            @Value("${outbox.relay.send-timeout:10000}") long sendTimeoutMillis,
+            @Value("${outbox.relay.on-commit:true}") boolean relayOnCommit,
+            @Value("${outbox.relay.max-attempts:10}") int maxAttempts) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.relayOnCommit = relayOnCommit;
+        this.maxAttempts = maxAttempts;
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Tiempo en publicar y confirmar un lote de eventos del outbox")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("outbox.relay.published").register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed").register(meterRegistry);
+        this.parkedCounter = Counter.builder("outbox.relay.parked").register(meterRegistry);
+        meterRegistry.gauge("outbox.relay.pending", outboxEventRepository, OutboxEventRepository::countByFailedAtIsNull);
+        meterRegistry.gauge("outbox.relay.parked.total", outboxEventRepository, OutboxEventRepository::countByFailedAtIsNotNull);
+    }
+
+    @Transactional
+    @Override
+    public int relayPendingEvents() {
+        // Otra réplica está publicando; ella se encarga de lo pendiente
+        if (!outboxEventRepository.tryAcquireRelayLock()) {
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Timer.Sample sample = Timer.start();
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            // El timestamp del registro es el del cambio que lo originó, no el del envío: las ventanas de Kafka Streams
+            // (ParticipationStatsTopology) agrupan por el momento en que ocurrió
+            sends.add(kafkaTemplate.send(new ProducerRecord<>(event.getTopic(), null, event.getCreatedAt().getTime(),
+                    event.getEventKey(), event.getPayload())));
+        }
+        kafkaTemplate.flush();
+
+        List<Long> published = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        String lastError = null;
+        long deadline = System.currentTimeMillis() + sendTimeoutMillis;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                sends.get(i).get(remaining, TimeUnit.MILLISECONDS);
+                published.add(batch.get(i).getId());
+            } catch (Exception e) {
+                failed.add(batch.get(i).getId());
+                lastError = e.getMessage();
+            }
+        }
+        sample.stop(batchTimer);
+
+        if (!published.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(published);
+            publishedCounter.increment(published.size());
+        }
+        if (!failed.isEmpty()) {
+            String error = lastError != null && lastError.length() > 1000 ? lastError.substring(0, 1000) : lastError;
+            outboxEventRepository.markFailed(failed, error);
+            failedCounter.increment(failed.size());
+            log.warn("No se pudieron publicar {} eventos del outbox: {}", failed.size(), error);
+            int parked = outboxEventRepository.parkExhausted(failed, maxAttempts);
+            if (parked > 0) {
+                parkedCounter.increment(parked);
+                log.error("{} eventos del outbox apartados tras {} intentos: {}", parked, maxAttempts, error);
+            }
+        }
+        return published.size();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:500}")
+    public void scheduleRelay() {
+        submitRelay();
+    }
+
+    @Override
+    public void requestRelay() {
+        if (relayOnCommit) {
+            submitRelay();
+        }
+    }
+
+    private void submitRelay() {
+        if (!relayRequested.compareAndSet(false, true)) {
+            return;
+        }
+        relayExecutor.execute(() -> {
+            // Se limpia antes de publicar: un commit que llegue durante el ciclo programa el siguiente
+            relayRequested.set(false);
+            try {
+                // Llamada interna: no pasa por el proxy de @Transactional, la transacción la abre la plantilla.
+                // Mientras los lotes salgan llenos quedan más eventos pendientes y se sigue sin esperar
+                Integer published;
+                do {
+                    published = transactionTemplate.execute(status -> relayPendingEvents());
+                } while (published != null && published >= batchSize);
+            } catch (Exception e) {
+                // Los eventos siguen en el outbox y los publicará el siguiente ciclo
+                log.warn("Fallo al publicar los eventos del outbox: {}", e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        relayExecutor.shutdownNow();
+    }
+}
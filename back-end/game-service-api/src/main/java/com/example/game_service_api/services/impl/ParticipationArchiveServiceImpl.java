@@ -0,0 +1,140 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import com.example.game_service_api.services.ParticipationArchiveService;
+import com.example.game_service_api.services.ParticipationRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantiene pequeña la tabla game_participations moviendo las sesiones cerradas antiguas a
+ * game_participations_archive, particionada por mes de joined_at. Las consultas calientes
+ * (participantes activos, uniones y salidas) solo tocan la tabla activa; el historial y la
+ * reconstrucción de estadísticas leen ambas.
+ */
+@Service
+public class ParticipationArchiveServiceImpl implements ParticipationArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(ParticipationArchiveServiceImpl.class);
+
+    private static final String ARCHIVE_TABLE = "game_participations_archive";
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(ARCHIVE_TABLE + "_(\\d{4})_(\\d{2})");
+
+    private static final String SELECT_OLDEST_ARCHIVABLE =
+            "SELECT MIN(joined_at) FROM game_participations WHERE NOT is_active AND left_at < ?";
+    private static final String SELECT_ARCHIVE_PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = '" + ARCHIVE_TABLE + "'";
+
+    private final GameParticipationRepository participationRepository;
+    private final ParticipationRollupService rollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionDays;
+    private final int batchSize;
+    private final int detachAfterMonths;
+
+    @Autowired
+    public ParticipationArchiveServiceImpl(
+            GameParticipationRepository participationRepository,
+            ParticipationRollupService rollupService,
+            JdbcTemplate jdbcTemplate,
+            @Value("${participation.archive.retention-days:30}") int retentionDays,
+            @Value("${participation.archive.batch-size:5000}") int batchSize,
+            @Value("${participation.archive.detach-after-months:0}") int detachAfterMonths) {
+        this.participationRepository = participationRepository;
+        this.rollupService = rollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.detachAfterMonths = detachAfterMonths;
+    }
+
+    /**
+     * Mueve por lotes las sesiones cerradas hace más de retention-days. Cada lote es una única sentencia
+     * (DELETE ... RETURNING + INSERT) que salta las filas bloqueadas, así que no frena a uniones ni salidas.
+     */
+    @Scheduled(cron = "${participation.archive.cron:0 30 3 * * *}")
+    @Override
+    public int archiveClosedParticipations() {
+        // Nunca se archiva nada que la agregación diaria no haya procesado todavía
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        LocalDateTime rolledUpUntil = rollupService.getWatermark();
+        if (rolledUpUntil.isBefore(cutoff)) {
+            cutoff = rolledUpUntil;
+        }
+        ensureMonthlyPartitions(cutoff);
+
+        int archived = 0;
+        int moved;
+        do {
+            moved = participationRepository.archiveClosedBefore(cutoff, batchSize);
+            archived += moved;
+        } while (moved == batchSize);
+
+        if (archived > 0) {
+            log.info("Archivadas {} participaciones cerradas antes de {}", archived, cutoff);
+        }
+        if (detachAfterMonths > 0) {
+            detachOldPartitions(YearMonth.now().minusMonths(detachAfterMonths));
+        }
+        return archived;
+    }
+
+    // Crea las particiones mensuales que necesiten las filas a archivar (desde la más antigua hasta el corte)
+    private void ensureMonthlyPartitions(LocalDateTime cutoff) {
+        Timestamp oldest = jdbcTemplate.queryForObject(SELECT_OLDEST_ARCHIVABLE, Timestamp.class, Timestamp.valueOf(cutoff));
+        if (oldest == null) {
+            return;
+        }
+        YearMonth last = YearMonth.from(cutoff);
+        for (YearMonth month = YearMonth.from(oldest.toLocalDateTime()); !month.isAfter(last); month = month.plusMonths(1)) {
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            String statement = String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partitionName(month), ARCHIVE_TABLE, from, to);
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (Exception e) {
+                // Si la partición DEFAULT ya tiene filas de ese mes no se puede crear; esas filas siguen archivándose en DEFAULT
+                log.warn("No se pudo crear la partición {}: {}", partitionName(month), e.getMessage());
+            }
+        }
+    }
+
+    // Separa del archivo las particiones anteriores al mes indicado; quedan como tablas sueltas para exportarlas o borrarlas
+    private void detachOldPartitions(YearMonth keepFrom) {
+        List<String> partitions = jdbcTemplate.queryForList(SELECT_ARCHIVE_PARTITIONS, String.class);
+        for (String partition : partitions) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(keepFrom)) {
+                try {
+                    jdbcTemplate.execute("ALTER TABLE " + ARCHIVE_TABLE + " DETACH PARTITION " + partition);
+                    log.info("Partición {} separada del archivo de participaciones", partition);
+                } catch (Exception e) {
+                    log.warn("No se pudo separar la partición {}: {}", partition, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_%04d_%02d", ARCHIVE_TABLE, month.getYear(), month.getMonthValue());
+    }
+}
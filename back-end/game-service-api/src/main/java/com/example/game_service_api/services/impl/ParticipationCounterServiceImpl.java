@@ -0,0 +1,233 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.GameParticipationMetrics;
+import com.example.game_service_api.commons.entities.GameParticipation;
+import com.example.game_service_api.commons.utils.Fingerprints;
+import com.example.game_service_api.kafka.ParticipationEventStartOffsets;
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import com.example.game_service_api.repositories.GameRepository;
+import com.example.game_service_api.services.ParticipationCounterService;
+import com.example.game_service_api.services.PresenceRegistryService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mantiene en memoria los contadores de participación de cada juego (participantes activos,
+ * sesiones cerradas y minutos jugados), actualizados de forma incremental al unirse o salir.
+ * Cada juego tiene sus propios LongAdder, así que las actualizaciones de juegos distintos no compiten.
+ *
+ * Todas las réplicas aplican todos los eventos, así que los contadores en memoria coinciden entre ellas.
+ * Lo persistido son las columnas de games más las filas de game_counter_deltas que cada unión o salida inserta
+ * en su propia transacción: un cambio confirmado nunca se pierde aunque la réplica caiga antes del volcado,
+ * que solo mueve esas filas a games. Al arrancar se parte de ahí, sin recorrer el historial de participaciones.
+ *
+ * Los participantes activos se leen del registro de presencia, donde aplicar dos veces un evento no cambia nada.
+ * Las sesiones y minutos sí se suman, así que las salidas que la carga inicial ya incluía no se vuelven a contar
+ * cuando llegan por Kafka (ver ParticipationEventStartOffsets.closedSince).
+ */
+@Service
+// Los contadores se cargan con el esquema ya creado, y después de fijar desde dónde se leen los eventos de participación
+@DependsOn({"databaseIndexInitializerServiceImpl", "participationEventStartOffsets"})
+public class ParticipationCounterServiceImpl implements ParticipationCounterService {
+    private static final Logger log = LoggerFactory.getLogger(ParticipationCounterServiceImpl.class);
+
+    private final GameRepository gameRepository;
+    private final GameParticipationRepository participationRepository;
+    private final PresenceRegistryService presenceRegistry;
+    private final ParticipationEventStartOffsets startOffsets;
+    private final TransactionTemplate transactionTemplate;
+    // Contadores y participaciones cerradas se leen en la misma instantánea para que coincidan
+    private final TransactionTemplate snapshotTemplate;
+    private final Map<Long, GameCounters> countersByGame = new ConcurrentHashMap<>();
+    // Participaciones cerradas que la carga inicial ya contó y cuya salida aún puede llegar por Kafka
+    private final Set<Long> closedInRebuild = ConcurrentHashMap.newKeySet();
+
+    // Totales de todos los juegos, para la huella del catálogo
+    private final LongAdder totalSessions = new LongAdder();
+    private final LongAdder totalMinutes = new LongAdder();
+    private volatile long lastChangedAt = System.currentTimeMillis();
+
+    @Autowired
+    public ParticipationCounterServiceImpl(
+            GameRepository gameRepository,
+            GameParticipationRepository participationRepository,
+            PresenceRegistryService presenceRegistry,
+            ParticipationEventStartOffsets startOffsets,
+            PlatformTransactionManager transactionManager) {
+        this.gameRepository = gameRepository;
+        this.participationRepository = participationRepository;
+        this.presenceRegistry = presenceRegistry;
+        this.startOffsets = startOffsets;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Carga los contadores persistidos al arrancar. Los juegos anteriores a las columnas de contadores los
+     * reciben una sola vez desde su historial; después basta con leer games y los incrementos pendientes
+     */
+    @PostConstruct
+    @Override
+    public void rebuildFromGames() {
+        countersByGame.clear();
+        closedInRebuild.clear();
+        totalSessions.reset();
+        totalMinutes.reset();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (gameRepository.existsGameWithoutCounters()) {
+                // Se espera a que termine cualquier volcado en curso para no sumar dos veces sus incrementos
+                gameRepository.acquireCountersLock();
+                log.info("Contadores de participación inicializados desde el historial para {} juegos",
+                        gameRepository.initializeMissingCounters());
+            }
+        });
+        snapshotTemplate.executeWithoutResult(status -> {
+            for (GameParticipationMetrics metrics : gameRepository.findParticipationCounters()) {
+                GameCounters counters = countersFor(metrics.getGameId());
+                addSessions(counters, valueOrZero(metrics.getTotalSessions()), valueOrZero(metrics.getTotalMinutesPlayed()));
+                markChanged(counters);
+            }
+            closedInRebuild.addAll(participationRepository.findIdsClosedSince(startOffsets.closedSince()));
+        });
+        log.info("Contadores de participación cargados para {} juegos", countersByGame.size());
+    }
+
+    @Override
+    public int recordJoin(Long gameId) {
+        markChanged(countersFor(gameId));
+        return getActiveParticipants(gameId);
+    }
+
+    @Override
+    public int recordLeave(Long participationId, Long gameId, int minutesPlayed) {
+        GameCounters counters = countersFor(gameId);
+        if (participationId == null || !closedInRebuild.remove(participationId)) {
+            addSessions(counters, 1, minutesPlayed);
+        }
+        markChanged(counters);
+        return getActiveParticipants(gameId);
+    }
+
+    // Se llaman dentro de la transacción de la unión o la salida, y solo en la réplica que la atiende:
+    // las demás aplican el evento en memoria sin volver a anotarlo
+    @Override
+    public void recordPersistedJoins(List<GameParticipation> created) {
+        gameRepository.insertCounterDeltas(created, false);
+    }
+
+    @Override
+    public void recordPersistedLeaves(List<GameParticipation> closed) {
+        gameRepository.insertCounterDeltas(closed, true);
+    }
+
+    @Override
+    public int getActiveParticipants(Long gameId) {
+        return presenceRegistry.getActiveCount(gameId);
+    }
+
+    @Override
+    public double getAverageTimePlayed(Long gameId) {
+        GameCounters counters = countersByGame.get(gameId);
+        if (counters == null) {
+            return 0.0;
+        }
+        long sessions = counters.sessions.sum();
+        return sessions > 0 ? (double) counters.minutes.sum() / sessions : 0.0;
+    }
+
+    /**
+     * Huella de los contadores de todos los juegos. Sale solo de su valor (qué participaciones están activas,
+     * sesiones y minutos), no de cuándo ni en qué orden se aplicó cada evento: todas las réplicas con el mismo
+     * estado dan la misma, así que un ETag construido con ella vale detrás de cualquier balanceador
+     */
+    @Override
+    public long getFingerprint() {
+        return fingerprint(presenceRegistry.getDigest(), totalSessions.sum(), totalMinutes.sum());
+    }
+
+    @Override
+    public long getFingerprint(Long gameId) {
+        GameCounters counters = countersByGame.get(gameId);
+        long sessions = counters != null ? counters.sessions.sum() : 0L;
+        long minutes = counters != null ? counters.minutes.sum() : 0L;
+        return fingerprint(presenceRegistry.getDigest(gameId), sessions, minutes);
+    }
+
+    @Override
+    public long getLastChangedAt() {
+        return lastChangedAt;
+    }
+
+    @Override
+    public long getLastChangedAt(Long gameId) {
+        GameCounters counters = countersByGame.get(gameId);
+        return counters != null ? counters.lastChangedAt : 0L;
+    }
+
+    /**
+     * Suma a la tabla games los incrementos pendientes de todas las réplicas. Si otra réplica está volcando
+     * este ciclo se salta: sus filas las recoge ella o el siguiente ciclo
+     */
+    @Scheduled(fixedDelayString = "${participation.counters.flush-interval:30000}")
+    @Transactional
+    @Override
+    public void flushToGames() {
+        if (!gameRepository.tryAcquireCountersLock()) {
+            return;
+        }
+        int folded = gameRepository.foldCounterDeltas();
+        if (folded > 0) {
+            log.debug("Volcados los contadores de participación de {} juegos", folded);
+        }
+    }
+
+    private void addSessions(GameCounters counters, long sessions, long minutes) {
+        counters.sessions.add(sessions);
+        counters.minutes.add(minutes);
+        totalSessions.add(sessions);
+        totalMinutes.add(minutes);
+    }
+
+    // Hora local del último cambio, para Last-Modified; el ETag no depende de ella (ver getFingerprint)
+    private void markChanged(GameCounters counters) {
+        long now = System.currentTimeMillis();
+        counters.lastChangedAt = now;
+        lastChangedAt = now;
+    }
+
+    private static long fingerprint(long presenceDigest, long sessions, long minutes) {
+        return Fingerprints.mix(Fingerprints.mix(presenceDigest, sessions), minutes);
+    }
+
+    private GameCounters countersFor(Long gameId) {
+        return countersByGame.computeIfAbsent(gameId, id -> new GameCounters());
+    }
+
+    private static long valueOrZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    // Contadores de un juego
+    private static class GameCounters {
+        private final LongAdder sessions = new LongAdder();
+        private final LongAdder minutes = new LongAdder();
+        private volatile long lastChangedAt;
+    }
+}
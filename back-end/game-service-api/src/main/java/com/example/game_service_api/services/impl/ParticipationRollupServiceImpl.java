@@ -0,0 +1,160 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.DailyPlaytimeStatsDTO;
+import com.example.game_service_api.commons.exceptions.GameException;
+import com.example.game_service_api.services.ParticipationRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrega las participaciones cerradas en game_daily_stats, una fila por (día de cierre, juego).
+ * Cada ejecución procesa solo las filas posteriores a la marca de agua (left_at, id) guardada en
+ * rollup_watermarks, en lotes, y deja un margen de unos minutos respecto a la hora actual para no
+ * saltarse salidas cuyo commit llegue con algo de retraso. Las consultas de analítica leen solo las agregaciones.
+ */
+@Service
+public class ParticipationRollupServiceImpl implements ParticipationRollupService {
+    private static final Logger log = LoggerFactory.getLogger(ParticipationRollupServiceImpl.class);
+
+    private static final String WATERMARK_NAME = "participation_daily_stats";
+
+    private static final String LOCK_WATERMARK =
+            "SELECT last_left_at, last_id FROM rollup_watermarks WHERE name = ? FOR UPDATE";
+    private static final String SELECT_BATCH_END =
+            "SELECT left_at, id FROM game_participations WHERE NOT is_active " +
+            "AND (left_at, id) > (?, ?) AND left_at < ? ORDER BY left_at, id OFFSET ? LIMIT 1";
+    private static final String SELECT_RANGE_END =
+            "SELECT left_at, id FROM game_participations WHERE NOT is_active " +
+            "AND (left_at, id) > (?, ?) AND left_at < ? ORDER BY left_at DESC, id DESC LIMIT 1";
+    private static final String UPSERT_DAILY_STATS =
+            "INSERT INTO game_daily_stats (day, game_id, game_type, sessions, total_minutes, max_minutes) " +
+            "SELECT CAST(gp.left_at AS date), gp.game_id, MAX(g.game_type), COUNT(*), " +
+            "SUM(COALESCE(gp.time_played_minutes, 0)), MAX(COALESCE(gp.time_played_minutes, 0)) " +
+            "FROM game_participations gp JOIN games g ON g.id = gp.game_id " +
+            "WHERE NOT gp.is_active AND (gp.left_at, gp.id) > (?, ?) AND (gp.left_at, gp.id) <= (?, ?) " +
+            "GROUP BY CAST(gp.left_at AS date), gp.game_id " +
+            "ON CONFLICT (day, game_id) DO UPDATE SET " +
+            "game_type = EXCLUDED.game_type, " +
+            "sessions = game_daily_stats.sessions + EXCLUDED.sessions, " +
+            "total_minutes = game_daily_stats.total_minutes + EXCLUDED.total_minutes, " +
+            "max_minutes = GREATEST(game_daily_stats.max_minutes, EXCLUDED.max_minutes)";
+    private static final String COUNT_RANGE =
+            "SELECT COUNT(*) FROM game_participations WHERE NOT is_active AND (left_at, id) > (?, ?) AND (left_at, id) <= (?, ?)";
+    private static final String UPDATE_WATERMARK =
+            "UPDATE rollup_watermarks SET last_left_at = ?, last_id = ?, updated_at = now() WHERE name = ?";
+    private static final String SELECT_WATERMARK =
+            "SELECT last_left_at FROM rollup_watermarks WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long commitLagMinutes;
+
+    @Autowired
+    public ParticipationRollupServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            @Value("${participation.rollup.batch-size:10000}") int batchSize,
+            @Value("${participation.rollup.commit-lag-minutes:5}") long commitLagMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.commitLagMinutes = commitLagMinutes;
+    }
+
+    /**
+     * Procesa un lote de participaciones cerradas desde la marca de agua. Todo ocurre en una transacción con la
+     * fila de la marca bloqueada, así que dos réplicas no agregan el mismo rango y un fallo no avanza la marca.
+     */
+    @Scheduled(fixedDelayString = "${participation.rollup.interval:600000}")
+    @Transactional
+    @Override
+    public int rollupClosedParticipations() {
+        Map<String, Object> watermark = jdbcTemplate.queryForMap(LOCK_WATERMARK, WATERMARK_NAME);
+        Timestamp fromLeftAt = (Timestamp) watermark.get("last_left_at");
+        long fromId = ((Number) watermark.get("last_id")).longValue();
+        Timestamp until = Timestamp.valueOf(LocalDateTime.now().minusMinutes(commitLagMinutes));
+
+        // Fin del lote: la fila número batchSize o, si hay menos, la última disponible
+        List<Map<String, Object>> end = jdbcTemplate.queryForList(SELECT_BATCH_END, fromLeftAt, fromId, until, batchSize - 1);
+        if (end.isEmpty()) {
+            end = jdbcTemplate.queryForList(SELECT_RANGE_END, fromLeftAt, fromId, until);
+        }
+        if (end.isEmpty()) {
+            return 0;
+        }
+        Timestamp toLeftAt = (Timestamp) end.get(0).get("left_at");
+        long toId = ((Number) end.get(0).get("id")).longValue();
+
+        Integer processed = jdbcTemplate.queryForObject(COUNT_RANGE, Integer.class, fromLeftAt, fromId, toLeftAt, toId);
+        jdbcTemplate.update(UPSERT_DAILY_STATS, fromLeftAt, fromId, toLeftAt, toId);
+        jdbcTemplate.update(UPDATE_WATERMARK, toLeftAt, toId, WATERMARK_NAME);
+        log.info("Agregadas {} participaciones en game_daily_stats (hasta {})", processed, toLeftAt);
+        return processed != null ? processed : 0;
+    }
+
+    @Override
+    public LocalDateTime getWatermark() {
+        Timestamp watermark = jdbcTemplate.queryForObject(SELECT_WATERMARK, Timestamp.class, WATERMARK_NAME);
+        return watermark != null ? watermark.toLocalDateTime() : LocalDateTime.of(1970, 1, 1, 0, 0);
+    }
+
+    @Override
+    public List<DailyPlaytimeStatsDTO> getDailyStats(LocalDate from, LocalDate to, Long gameId, String gameType, String groupBy) {
+        String groupColumns;
+        String selectColumns;
+        switch (groupBy == null ? "game" : groupBy.toLowerCase()) {
+            case "game" -> {
+                groupColumns = "day, game_id";
+                selectColumns = "day, game_id, MAX(game_type) AS game_type";
+            }
+            case "type" -> {
+                groupColumns = "day, game_type";
+                selectColumns = "day, NULL AS game_id, game_type";
+            }
+            case "day" -> {
+                groupColumns = "day";
+                selectColumns = "day, NULL AS game_id, NULL AS game_type";
+            }
+            default -> throw new GameException(HttpStatus.BAD_REQUEST, "groupBy debe ser game, type o day");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(selectColumns)
+                .append(", SUM(sessions) AS sessions, SUM(total_minutes) AS total_minutes, MAX(max_minutes) AS max_minutes ")
+                .append("FROM game_daily_stats WHERE day BETWEEN ? AND ?");
+        List<Object> params = new ArrayList<>(List.of(from, to));
+        if (gameId != null) {
+            sql.append(" AND game_id = ?");
+            params.add(gameId);
+        }
+        if (gameType != null && !gameType.isBlank()) {
+            sql.append(" AND game_type = ?");
+            params.add(gameType);
+        }
+        sql.append(" GROUP BY ").append(groupColumns).append(" ORDER BY ").append(groupColumns);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            long sessions = rs.getLong("sessions");
+            long totalMinutes = rs.getLong("total_minutes");
+            return new DailyPlaytimeStatsDTO(
+                    rs.getObject("day", LocalDate.class),
+                    (Long) rs.getObject("game_id"),
+                    rs.getString("game_type"),
+                    sessions,
+                    totalMinutes,
+                    sessions > 0 ? (double) totalMinutes / sessions : 0.0,
+                    rs.getInt("max_minutes"));
+        }, params.toArray());
+    }
+}
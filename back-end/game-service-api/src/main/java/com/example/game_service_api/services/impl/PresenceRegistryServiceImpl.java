@@ -0,0 +1,172 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.commons.utils.Fingerprints;
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import com.example.game_service_api.services.PresenceRegistryService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registro en memoria de quién está jugando a qué: gameId -> (userId -> participación activa).
+ * Responde a las consultas de estado y de participantes que el frontend hace por polling
+ * sin ir a la base de datos. Se reconstruye al arrancar y se actualiza al confirmar cada unión o salida.
+ *
+ * Aplicar dos veces la misma unión o salida no cambia nada, así que el número de participantes activos
+ * se lleva aquí: solo se mueve cuando una entrada pasa de activa a cerrada o al revés. Lo mismo el resumen
+ * de las participaciones activas (XOR de sus ids mezclados), que solo depende de qué participaciones están
+ * dentro: todas las réplicas calculan el mismo y sirve para los ETag.
+ */
+@Service
+@DependsOn({"databaseIndexInitializerServiceImpl", "participationEventStartOffsets"}) // Ver ParticipationEventStartOffsets
+public class PresenceRegistryServiceImpl implements PresenceRegistryService {
+    private static final Logger log = LoggerFactory.getLogger(PresenceRegistryServiceImpl.class);
+
+    private final GameParticipationRepository participationRepository;
+    private final Map<Long, GamePresence> presenceByGame = new ConcurrentHashMap<>();
+    private final AtomicLong digest = new AtomicLong();
+
+    @Autowired
+    public PresenceRegistryServiceImpl(GameParticipationRepository participationRepository) {
+        this.participationRepository = participationRepository;
+    }
+
+    @PostConstruct
+    @Override
+    public void rebuildPresence() {
+        presenceByGame.clear();
+        digest.set(0L);
+        participationRepository.findAllActive().forEach(participation -> onJoined(GameParticipationDTO.from(participation)));
+        log.info("Registro de presencia reconstruido con {} juegos con participantes", presenceByGame.size());
+    }
+
+    @Override
+    public void onJoined(GameParticipationDTO participation) {
+        GamePresence presence = presenceFor(participation.getGameId());
+        presence.players.compute(participation.getUserId(), (userId, current) ->
+                transition(presence, current, current == null ? participation : newest(current, participation)));
+    }
+
+    @Override
+    public void onLeft(GameParticipationDTO participation) {
+        GamePresence presence = presenceFor(participation.getGameId());
+        presence.players.compute(participation.getUserId(), (userId, current) -> {
+            if (current == null) {
+                // La salida se aplicó antes que su unión: se deja la participación cerrada como marca
+                // para que la unión que llega tarde no reviva la presencia
+                return participation;
+            }
+            return transition(presence, current, current.getId() > participation.getId() ? current : null);
+        });
+    }
+
+    @Override
+    public GameParticipationDTO getParticipation(Long gameId, Long userId) {
+        GamePresence presence = presenceByGame.get(gameId);
+        if (presence == null) {
+            return null;
+        }
+        GameParticipationDTO participation = presence.players.get(userId);
+        return isActive(participation) ? participation : null;
+    }
+
+    @Override
+    public List<GameParticipationDTO> getParticipants(Long gameId) {
+        GamePresence presence = presenceByGame.get(gameId);
+        List<GameParticipationDTO> participants = new ArrayList<>();
+        if (presence == null) {
+            return participants;
+        }
+        for (GameParticipationDTO participation : presence.players.values()) {
+            if (isActive(participation)) {
+                participants.add(participation);
+            }
+        }
+        participants.sort(Comparator.comparing(GameParticipationDTO::getJoinedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        return participants;
+    }
+
+    @Override
+    public int getActiveCount(Long gameId) {
+        GamePresence presence = presenceByGame.get(gameId);
+        return presence != null ? presence.active.get() : 0;
+    }
+
+    @Override
+    public long getDigest() {
+        return digest.get();
+    }
+
+    @Override
+    public long getDigest(Long gameId) {
+        GamePresence presence = presenceByGame.get(gameId);
+        return presence != null ? presence.digest.get() : 0L;
+    }
+
+    private GamePresence presenceFor(Long gameId) {
+        return presenceByGame.computeIfAbsent(gameId, id -> new GamePresence());
+    }
+
+    // Cada paso entre activa y cerrada se cuenta una vez: se llama dentro de compute, que es atómico por usuario
+    private GameParticipationDTO transition(GamePresence presence, GameParticipationDTO current, GameParticipationDTO next) {
+        boolean wasActive = isActive(current);
+        boolean isActive = isActive(next);
+        if (wasActive && (!isActive || !current.getId().equals(next.getId()))) {
+            exit(presence, current);
+        }
+        if (isActive && (!wasActive || !current.getId().equals(next.getId()))) {
+            enter(presence, next);
+        }
+        return next;
+    }
+
+    private void enter(GamePresence presence, GameParticipationDTO participation) {
+        presence.active.incrementAndGet();
+        toggle(presence, participation);
+    }
+
+    private void exit(GamePresence presence, GameParticipationDTO participation) {
+        presence.active.decrementAndGet();
+        toggle(presence, participation);
+    }
+
+    // XOR entra y sale con la misma operación: el resumen no depende del orden de las uniones y salidas
+    private void toggle(GamePresence presence, GameParticipationDTO participation) {
+        long hash = Fingerprints.mix(participation.getId());
+        presence.digest.accumulateAndGet(hash, (a, b) -> a ^ b);
+        digest.accumulateAndGet(hash, (a, b) -> a ^ b);
+    }
+
+    private static boolean isActive(GameParticipationDTO participation) {
+        return participation != null && Boolean.TRUE.equals(participation.getIsActive());
+    }
+
+    // Las notificaciones tras el commit pueden llegar desordenadas entre hilos: gana la participación más reciente
+    // (mayor id) y, para la misma participación, el cierre sobre la apertura
+    private static GameParticipationDTO newest(GameParticipationDTO current, GameParticipationDTO incoming) {
+        int byId = Long.compare(incoming.getId(), current.getId());
+        if (byId != 0) {
+            return byId > 0 ? incoming : current;
+        }
+        return Boolean.FALSE.equals(incoming.getIsActive()) ? incoming : current;
+    }
+
+    // Participantes de un juego, cuántos de ellos siguen activos y el resumen de sus ids
+    private static class GamePresence {
+        private final Map<Long, GameParticipationDTO> players = new ConcurrentHashMap<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong digest = new AtomicLong();
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.ParticipationHeartbeat;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import com.example.game_service_api.services.GameParticipationService;
+import com.example.game_service_api.services.SessionExpiryService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Expira las participaciones que dejan de enviar latidos (el usuario cerró la pestaña sin salir del juego).
+ * Usa una rueda de temporización con hash: cada sesión vive en la ranura de su fecha límite y un único
+ * barrido programado avanza ranura a ranura, así que no hay una tarea por sesión ni recorridos de la tabla.
+ * Un latido solo actualiza la fecha límite de la sesión (O(1)); la sesión se recoloca cuando el barrido
+ * pasa por su ranura y comprueba que aún no ha vencido.
+ *
+ * Todas las réplicas vigilan todas las sesiones (las uniones llegan a cada una por ParticipationEventListener),
+ * pero cada latido lo recibe solo una. Por eso los latidos se guardan en last_heartbeat_at, en lote en cada
+ * barrido, y antes de cerrar una sesión vencida se vuelve a mirar su último latido en la base de datos:
+ * si otra réplica lo recibió, la sesión se recoloca con esa fecha en lugar de cerrarse.
+ */
+@Service
+@DependsOn("databaseIndexInitializerServiceImpl")
+public class SessionExpiryServiceImpl implements SessionExpiryService {
+    private static final Logger log = LoggerFactory.getLogger(SessionExpiryServiceImpl.class);
+
+    private final GameParticipationRepository participationRepository;
+    private final GameParticipationService participationService;
+    private final Clock clock;
+    private final long tickMillis;
+    private final long timeoutMillis;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Latidos recibidos desde el último barrido, pendientes de guardar
+    private final Map<String, ParticipationRequest> pendingHeartbeats = new ConcurrentHashMap<>();
+    // Ranuras de la rueda; colocar una sesión y vaciar una ranura se hacen con el mismo cerrojo para que
+    // ninguna sesión acabe en una cola que el barrido ya ha recorrido
+    private final List<List<Session>> wheel;
+    private final Object wheelLock = new Object();
+    // Última ranura barrida, protegida también por el cerrojo
+    private long lastTick;
+
+    @Autowired
+    public SessionExpiryServiceImpl(
+            GameParticipationRepository participationRepository,
+            @Lazy GameParticipationService participationService, // Dependencia circular: el servicio de participación nos avisa de uniones y salidas
+            @Value("${participation.heartbeat.interval:30000}") long heartbeatIntervalMillis,
+            @Value("${participation.heartbeat.missed-before-expiry:3}") int missedHeartbeats,
+            @Value("${participation.heartbeat.tick:1000}") long tickMillis,
+            @Value("${participation.heartbeat.wheel-size:512}") int wheelSize) {
+        this(participationRepository, participationService, Clock.systemDefaultZone(),
+                heartbeatIntervalMillis * missedHeartbeats, tickMillis, wheelSize);
+    }
+
+    SessionExpiryServiceImpl(GameParticipationRepository participationRepository, GameParticipationService participationService,
+                             Clock clock, long timeoutMillis, long tickMillis, int wheelSize) {
+        this.participationRepository = participationRepository;
+        this.participationService = participationService;
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.wheel = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        this.lastTick = clock.millis() / tickMillis;
+    }
+
+    /**
+     * Al arrancar se da a todas las participaciones activas un plazo completo para volver a enviar latidos
+     */
+    @PostConstruct
+    @Override
+    public void rebuildSessions() {
+        List<ParticipationRequest> active = participationRepository.findActiveUserAndGameIds();
+        active.forEach(participation -> track(participation.getUserId(), participation.getGameId()));
+        log.info("Seguimiento de latidos iniciado para {} participaciones activas", active.size());
+    }
+
+    @Override
+    public void track(Long userId, Long gameId) {
+        Session session = new Session(userId, gameId, clock.millis() + timeoutMillis);
+        Session previous = sessions.put(participationKey(userId, gameId), session);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        schedule(session, session.deadline / tickMillis);
+    }
+
+    @Override
+    public boolean heartbeat(Long userId, Long gameId) {
+        String key = participationKey(userId, gameId);
+        Session session = sessions.get(key);
+        if (session == null) {
+            return false;
+        }
+        session.deadline = clock.millis() + timeoutMillis;
+        pendingHeartbeats.put(key, new ParticipationRequest(userId, gameId));
+        return true;
+    }
+
+    @Override
+    public void untrack(Long userId, Long gameId) {
+        String key = participationKey(userId, gameId);
+        pendingHeartbeats.remove(key);
+        Session session = sessions.remove(key);
+        if (session != null) {
+            session.cancelled = true;
+        }
+    }
+
+    /**
+     * Guarda los latidos pendientes y avanza la rueda hasta la hora actual, procesando también las ranuras
+     * atrasadas si un barrido se retrasó
+     */
+    @Scheduled(fixedDelayString = "${participation.heartbeat.tick:1000}")
+    @Override
+    public void advance() {
+        flushHeartbeats();
+
+        long now = clock.millis();
+        long currentTick = now / tickMillis;
+        // Con más de una vuelta de retraso basta con recorrer cada ranura una vez
+        long fromTick;
+        synchronized (wheelLock) {
+            fromTick = Math.max(lastTick + 1, currentTick - wheel.size() + 1);
+        }
+        Map<String, Session> overdue = new HashMap<>();
+
+        for (long tick = fromTick; tick <= currentTick; tick++) {
+            // Se cambia la ranura por una vacía: lo que se recoloque durante el barrido no se vuelve a procesar
+            List<Session> slot;
+            synchronized (wheelLock) {
+                slot = wheel.set(slotFor(tick), new ArrayList<>());
+                lastTick = tick;
+            }
+            for (Session session : slot) {
+                if (session.cancelled) {
+                    continue;
+                }
+                if (session.deadline > now) {
+                    // Recibió latidos desde que se colocó aquí, o vence en una vuelta posterior
+                    schedule(session, Math.max(session.deadline / tickMillis, currentTick + 1));
+                } else {
+                    overdue.put(participationKey(session.userId, session.gameId), session);
+                }
+            }
+        }
+
+        if (!overdue.isEmpty()) {
+            expire(overdue, now, currentTick);
+        }
+    }
+
+    // Cierra las sesiones vencidas cuyo último latido guardado también ha vencido; las que recibieron latidos
+    // en otra réplica se recolocan con esa fecha
+    private void expire(Map<String, Session> overdue, long now, long currentTick) {
+        List<ParticipationHeartbeat> heartbeats;
+        try {
+            heartbeats = participationRepository.findActiveHeartbeats(
+                    overdue.values().stream().map(session -> new ParticipationRequest(session.userId, session.gameId)).toList());
+        } catch (Exception e) {
+            // Sin poder confirmarlo no se cierra nada: se vuelven a vigilar con un plazo completo
+            log.warn("No se pudieron comprobar los latidos de {} participaciones: {}", overdue.size(), e.getMessage());
+            overdue.values().forEach(session -> reschedule(session, now + timeoutMillis, currentTick));
+            return;
+        }
+
+        List<ParticipationRequest> expired = new ArrayList<>();
+        for (ParticipationHeartbeat heartbeat : heartbeats) {
+            String key = participationKey(heartbeat.getUserId(), heartbeat.getGameId());
+            Session session = overdue.remove(key);
+            long deadline = heartbeat.getLastHeartbeatAt().atZone(clock.getZone()).toInstant().toEpochMilli() + timeoutMillis;
+            if (deadline > now) {
+                reschedule(session, deadline, currentTick);
+            } else if (sessions.remove(key, session)) {
+                expired.add(new ParticipationRequest(session.userId, session.gameId));
+            }
+        }
+        // Las que ya no están activas las cerró otra réplica; su evento de salida llegará igualmente
+        overdue.forEach(sessions::remove);
+
+        if (!expired.isEmpty()) {
+            try {
+                // Se cierran con el mismo cálculo de tiempo jugado que leaveGame
+                int closed = participationService.leaveGames(expired).size();
+                log.info("Expiradas {} participaciones sin latidos ({} cerradas)", expired.size(), closed);
+            } catch (Exception e) {
+                // Se vuelven a vigilar para reintentar en la siguiente vuelta
+                log.warn("No se pudieron expirar {} participaciones: {}", expired.size(), e.getMessage());
+                expired.forEach(participation -> track(participation.getUserId(), participation.getGameId()));
+            }
+        }
+    }
+
+    // Guarda en una sola sentencia los latidos recibidos por esta réplica desde el último barrido
+    private void flushHeartbeats() {
+        if (pendingHeartbeats.isEmpty()) {
+            return;
+        }
+        Map<String, ParticipationRequest> batch = new HashMap<>();
+        for (String key : pendingHeartbeats.keySet()) {
+            ParticipationRequest request = pendingHeartbeats.remove(key);
+            if (request != null) {
+                batch.put(key, request);
+            }
+        }
+        try {
+            participationRepository.touchHeartbeats(batch.values(), LocalDateTime.now(clock));
+        } catch (Exception e) {
+            // Se reintentan en el siguiente barrido, salvo los que ya tengan un latido más reciente pendiente
+            log.warn("No se pudieron guardar {} latidos: {}", batch.size(), e.getMessage());
+            batch.forEach(pendingHeartbeats::putIfAbsent);
+        }
+    }
+
+    private void reschedule(Session session, long deadline, long currentTick) {
+        session.deadline = Math.max(session.deadline, deadline);
+        schedule(session, Math.max(session.deadline / tickMillis, currentTick + 1));
+    }
+
+    private void schedule(Session session, long tick) {
+        synchronized (wheelLock) {
+            // Una ranura ya barrida no se vuelve a mirar hasta la siguiente vuelta: va a la próxima pendiente
+            wheel.get(slotFor(Math.max(tick, lastTick + 1))).add(session);
+        }
+    }
+
+    private int slotFor(long tick) {
+        return (int) (tick % wheel.size());
+    }
+
+    private static String participationKey(Long userId, Long gameId) {
+        return userId + ":" + gameId;
+    }
+
+    private static final class Session {
+        private final Long userId;
+        private final Long gameId;
+        private volatile long deadline;
+        private volatile boolean cancelled;
+
+        private Session(Long userId, Long gameId, long deadline) {
+            this.userId = userId;
+            this.gameId = gameId;
+            this.deadline = deadline;
+        }
+    }
+}
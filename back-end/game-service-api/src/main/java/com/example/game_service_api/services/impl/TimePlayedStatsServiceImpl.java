@@ -0,0 +1,240 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.TimePlayedStats;
+import com.example.game_service_api.commons.entities.GameTimeHistogram;
+import com.example.game_service_api.commons.utils.Fingerprints;
+import com.example.game_service_api.commons.utils.SessionLengthHistogram;
+import com.example.game_service_api.repositories.GameTimeHistogramRepository;
+import com.example.game_service_api.services.TimePlayedStatsService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantiene por juego un histograma de duración de sesiones para calcular percentiles sin recorrer
+ * game_participations. Cada juego tiene una base (lo ya volcado a game_time_histograms, sumando todas
+ * las réplicas) y un histograma pendiente con lo registrado localmente desde el último volcado.
+ * Al volcar, el pendiente se suma a la fila bloqueada y se recargan todas las filas, también las de juegos
+ * sin cambios locales. Los percentiles salen solo de las bases, así que todas las réplicas responden lo mismo
+ * para el mismo updated_at (que forma parte del ETag): una sesión aparece tras el volcado que la incluye.
+ * Las bases solo se sustituyen tras el commit; si hay rollback, lo volcado vuelve a pendiente.
+ */
+@Service
+@DependsOn("databaseIndexInitializerServiceImpl") // El relleno inicial lee también game_participations_archive
+public class TimePlayedStatsServiceImpl implements TimePlayedStatsService {
+    private static final Logger log = LoggerFactory.getLogger(TimePlayedStatsServiceImpl.class);
+
+    // Solo se usa una vez, si la tabla de histogramas está vacía, para partir de las sesiones ya cerradas
+    private static final String SELECT_CLOSED_SESSIONS =
+            "SELECT game_id, COALESCE(time_played_minutes, 0) FROM game_participations WHERE NOT is_active AND game_id IS NOT NULL " +
+            "UNION ALL SELECT game_id, COALESCE(time_played_minutes, 0) FROM game_participations_archive WHERE game_id IS NOT NULL";
+    private static final String INSERT_HISTOGRAM_IF_ABSENT =
+            "INSERT INTO game_time_histograms (game_id, histogram, updated_at) VALUES (?, ?, ?) ON CONFLICT (game_id) DO NOTHING";
+
+    private final GameTimeHistogramRepository histogramRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, GameHistograms> histogramsByGame = new ConcurrentHashMap<>();
+    // Mayor updated_at de las filas cargadas, para el Last-Modified del catálogo
+    private volatile long lastUpdatedAt;
+    // XOR de la huella (juego, updated_at) de cada fila cargada, para el ETag del catálogo. Un máximo no basta:
+    // una réplica con el reloj atrasado puede volcar con un updated_at menor que el de otra fila
+    private final AtomicLong digest = new AtomicLong();
+
+    @Autowired
+    public TimePlayedStatsServiceImpl(GameTimeHistogramRepository histogramRepository, JdbcTemplate jdbcTemplate) {
+        this.histogramRepository = histogramRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    @Override
+    public void loadHistograms() {
+        if (histogramRepository.count() == 0) {
+            backfillFromParticipations();
+        }
+        histogramsByGame.clear();
+        digest.set(0L);
+        replaceBases(histogramRepository.findAll());
+        log.info("Histogramas de tiempo jugado cargados para {} juegos", histogramsByGame.size());
+    }
+
+    @Override
+    public void recordSession(Long gameId, int minutesPlayed) {
+        histogramsFor(gameId).record(minutesPlayed);
+    }
+
+    @Override
+    public TimePlayedStats getStats(Long gameId) {
+        GameHistograms histograms = histogramsByGame.get(gameId);
+        return histograms != null ? histograms.stats() : TimePlayedStats.EMPTY;
+    }
+
+    @Override
+    public long getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    @Override
+    public long getDigest() {
+        return digest.get();
+    }
+
+    @Override
+    public long getLastUpdatedAt(Long gameId) {
+        GameHistograms histograms = histogramsByGame.get(gameId);
+        return histograms != null ? histograms.updatedAt : 0L;
+    }
+
+    /**
+     * Suma lo registrado en esta réplica a las filas de game_time_histograms y recarga todas las bases.
+     * Si la transacción no se confirma, lo volcado se devuelve a pendiente para el siguiente volcado.
+     */
+    @Scheduled(fixedDelayString = "${participation.histograms.flush-interval:60000}")
+    @Transactional
+    @Override
+    public void flushHistograms() {
+        Map<Long, SessionLengthHistogram> drained = new HashMap<>();
+        histogramsByGame.forEach((gameId, histograms) -> {
+            SessionLengthHistogram pending = histograms.drainPending();
+            if (pending != null) {
+                drained.put(gameId, pending);
+            }
+        });
+        List<GameTimeHistogram> reloaded = new ArrayList<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    replaceBases(reloaded);
+                } else {
+                    drained.keySet().forEach(gameId -> histogramsFor(gameId).restoreFlushing());
+                }
+            }
+        });
+
+        if (!drained.isEmpty()) {
+            Map<Long, GameTimeHistogram> rows = new HashMap<>();
+            for (GameTimeHistogram row : histogramRepository.findAllForUpdate(drained.keySet())) {
+                rows.put(row.getGameId(), row);
+            }
+            Date now = new Date();
+            for (Map.Entry<Long, SessionLengthHistogram> entry : drained.entrySet()) {
+                GameTimeHistogram row = rows.get(entry.getKey());
+                SessionLengthHistogram merged = row != null
+                        ? SessionLengthHistogram.fromBytes(row.getHistogram()).add(entry.getValue())
+                        : entry.getValue().copy();
+                if (row == null) {
+                    row = new GameTimeHistogram(entry.getKey(), null, null);
+                }
+                row.setHistogram(merged.toBytes());
+                row.setUpdatedAt(now);
+                histogramRepository.save(row);
+            }
+            log.debug("Volcados histogramas de tiempo jugado de {} juegos", drained.size());
+        }
+        // Incluye lo recién guardado y lo que hayan volcado las demás réplicas
+        reloaded.addAll(histogramRepository.findAll());
+    }
+
+    // Sustituye la base de cada juego por su fila de game_time_histograms, ya confirmada
+    private void replaceBases(List<GameTimeHistogram> rows) {
+        long latest = lastUpdatedAt;
+        for (GameTimeHistogram row : rows) {
+            long updatedAt = row.getUpdatedAt() != null ? row.getUpdatedAt().getTime() : 0L;
+            GameHistograms histograms = histogramsFor(row.getGameId());
+            long previous = histograms.updatedAt;
+            if (previous != updatedAt) {
+                digest.accumulateAndGet(Fingerprints.mix(row.getGameId(), previous) ^ Fingerprints.mix(row.getGameId(), updatedAt),
+                        (a, b) -> a ^ b);
+            }
+            histograms.replaceBase(SessionLengthHistogram.fromBytes(row.getHistogram()), updatedAt);
+            latest = Math.max(latest, updatedAt);
+        }
+        lastUpdatedAt = latest;
+    }
+
+    private void backfillFromParticipations() {
+        Map<Long, SessionLengthHistogram> backfill = new HashMap<>();
+        jdbcTemplate.query(SELECT_CLOSED_SESSIONS, rs -> {
+            backfill.computeIfAbsent(rs.getLong(1), id -> new SessionLengthHistogram()).record(rs.getInt(2));
+        });
+        if (backfill.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        // ON CONFLICT: si otra réplica ya rellenó la tabla al arrancar a la vez, se conserva la suya
+        List<Object[]> rows = backfill.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue().toBytes(), now})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_HISTOGRAM_IF_ABSENT, rows);
+        log.info("Histogramas de tiempo jugado inicializados a partir de las sesiones de {} juegos", backfill.size());
+    }
+
+    private GameHistograms histogramsFor(Long gameId) {
+        return histogramsByGame.computeIfAbsent(gameId, id -> new GameHistograms());
+    }
+
+    private static final class GameHistograms {
+        private SessionLengthHistogram base = new SessionLengthHistogram();
+        // Volcado en una transacción aún sin confirmar: vuelve a pendiente si no se confirma
+        private SessionLengthHistogram flushing = new SessionLengthHistogram();
+        private SessionLengthHistogram pending = new SessionLengthHistogram();
+        private volatile TimePlayedStats stats; // Se recalcula solo cuando cambia la base
+        private volatile long updatedAt; // updated_at de la fila de la base
+
+        synchronized void record(long minutes) {
+            pending.record(minutes);
+        }
+
+        synchronized SessionLengthHistogram drainPending() {
+            if (pending.isEmpty()) {
+                return null;
+            }
+            SessionLengthHistogram drained = pending;
+            flushing.add(drained);
+            pending = new SessionLengthHistogram();
+            return drained;
+        }
+
+        synchronized void restoreFlushing() {
+            pending.add(flushing);
+            flushing = new SessionLengthHistogram();
+        }
+
+        // La nueva base ya incluye lo que esta réplica estaba volcando
+        synchronized void replaceBase(SessionLengthHistogram newBase, long newUpdatedAt) {
+            base = newBase;
+            flushing = new SessionLengthHistogram();
+            updatedAt = newUpdatedAt;
+            stats = null;
+        }
+
+        TimePlayedStats stats() {
+            TimePlayedStats current = stats;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                stats = new TimePlayedStats(base.getTotalCount(), base.getMean(),
+                        base.valueAtPercentile(50), base.valueAtPercentile(90), base.valueAtPercentile(99));
+                return stats;
+            }
+        }
+    }
+}
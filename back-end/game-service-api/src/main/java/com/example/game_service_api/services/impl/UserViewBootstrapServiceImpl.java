@@ -0,0 +1,232 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.UserViewBootstrapProgress;
+import com.example.game_service_api.commons.dto.UserViewBootstrapProgress.State;
+import com.example.game_service_api.kafka.UserEventListener;
+import com.example.game_service_api.services.UserViewBootstrapService;
+import com.example.game_service_api.services.UserViewSyncService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Modo de arranque que reconstruye UserView leyendo el topic compactado user-events desde el principio,
+ * en lugar de depender de que la tabla ya esté al día. Sirve para rehacer la vista o levantar una réplica nueva.
+ *
+ * La lectura usa un consumidor propio con las particiones asignadas a mano hasta alcanzar los offsets finales
+ * tomados al empezar, y aplica cada poll con los upserts masivos de UserViewSyncService. Al terminar se borran
+ * los usuarios que no aparecen en el topic: sus lápidas pueden haber desaparecido ya con la compactación.
+ * Mientras tanto el health "userViewBootstrap" está fuera de servicio, lo que saca a la
+ * réplica del grupo readiness. Al terminar arranca el listener en vivo, que sigue desde los offsets de su grupo;
+ * los eventos que se apliquen dos veces convergen al mismo estado porque solo cuenta el último de cada usuario.
+ */
+@Service
+public class UserViewBootstrapServiceImpl implements UserViewBootstrapService, ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(UserViewBootstrapServiceImpl.class);
+
+    private final UserViewSyncService userViewSyncService;
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final boolean enabled;
+    private final String topic;
+    private final Duration pollTimeout;
+    private final long progressIntervalMillis;
+    private final long retryDelayMillis;
+
+    private volatile State state;
+    private volatile long recordsRead;
+    private volatile long recordsRemaining;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+
+    @Autowired
+    public UserViewBootstrapServiceImpl(
+            UserViewSyncService userViewSyncService,
+            ConsumerFactory<String, byte[]> consumerFactory,
+            KafkaListenerEndpointRegistry listenerRegistry,
+            @Value("${users.bootstrap.enabled:false}") boolean enabled,
+            @Value("${spring.kafka.topics.user-events}") String topic,
+            @Value("${users.bootstrap.poll-timeout:1000}") long pollTimeoutMillis,
+            @Value("${users.bootstrap.progress-interval:10000}") long progressIntervalMillis,
+            @Value("${users.bootstrap.retry-delay:5000}") long retryDelayMillis) {
+        this.userViewSyncService = userViewSyncService;
+        this.consumerFactory = consumerFactory;
+        this.listenerRegistry = listenerRegistry;
+        this.enabled = enabled;
+        this.topic = topic;
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMillis);
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.retryDelayMillis = retryDelayMillis;
+        this.state = enabled ? State.RUNNING : State.DISABLED;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        // En otro hilo para que la aplicación arranque (liveness) mientras readiness espera a la reconstrucción
+        Thread thread = new Thread(this::replayUntilCaughtUp, "user-view-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void replayUntilCaughtUp() {
+        startedAt = LocalDateTime.now();
+        while (true) {
+            try {
+                replay();
+                break;
+            } catch (Exception e) {
+                // Normalmente Kafka no está disponible todavía: se reintenta desde el principio
+                lastError = e.getMessage();
+                log.warn("Error al reconstruir UserView desde {}, reintentando en {} ms: {}", topic, retryDelayMillis, e.getMessage());
+                try {
+                    Thread.sleep(retryDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        finishedAt = LocalDateTime.now();
+        state = State.COMPLETED;
+        log.info("UserView reconstruida desde {}: {} registros en {} s", topic, recordsRead,
+                Duration.between(startedAt, finishedAt).toSeconds());
+
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(UserEventListener.LISTENER_ID);
+        if (container != null) {
+            container.start();
+        }
+    }
+
+    private void replay() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "2000");
+        LocalDateTime replayStartedAt = LocalDateTime.now();
+        Set<Long> seenUserIds = new HashSet<>();
+        boolean allKeysRead = true;
+
+        // Con groupId nulo se usa el group-id configurado, pero assign() no se une al grupo y sin commits
+        // tampoco mueve sus offsets, así que el listener en vivo sigue desde donde estaba
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer(null, "user-view-bootstrap", null, overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+            if (partitionInfos != null) {
+                partitionInfos.forEach(info -> partitions.add(new TopicPartition(topic, info.partition())));
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            recordsRead = 0;
+            recordsRemaining = remaining(consumer, endOffsets);
+            log.info("Reconstruyendo UserView desde {} ({} particiones, hasta {} registros)", topic, partitions.size(), recordsRemaining);
+
+            long lastReport = System.currentTimeMillis();
+            while (recordsRemaining > 0) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(pollTimeout);
+                if (!records.isEmpty()) {
+                    List<ConsumerRecord<String, byte[]>> batch = new ArrayList<>(records.count());
+                    records.forEach(batch::add);
+                    applyBatch(batch);
+                    for (ConsumerRecord<String, byte[]> record : batch) {
+                        Long userId = userIdOf(record);
+                        if (userId != null) {
+                            seenUserIds.add(userId);
+                        } else {
+                            allKeysRead = false;
+                        }
+                    }
+                    recordsRead += batch.size();
+                }
+                recordsRemaining = remaining(consumer, endOffsets);
+
+                if (System.currentTimeMillis() - lastReport >= progressIntervalMillis) {
+                    log.info("Reconstrucción de UserView: {} registros leídos, quedan hasta {}", recordsRead, recordsRemaining);
+                    lastReport = System.currentTimeMillis();
+                }
+            }
+        }
+
+        // Con alguna clave ilegible, o un topic vacío, no se sabe qué usuarios faltan de verdad: mejor dejar filas
+        // de más que vaciar la vista
+        if (!allKeysRead || seenUserIds.isEmpty()) {
+            log.warn("No se borran los usuarios ausentes de {}: {} ids leídos, claves ilegibles: {}", topic, seenUserIds.size(), !allKeysRead);
+            return;
+        }
+        try {
+            // Solo los que no han recibido eventos desde que empezó la lectura, para no borrar altas posteriores
+            int removed = userViewSyncService.removeUsersNotIn(seenUserIds, replayStartedAt);
+            log.info("Borrados {} usuarios de UserView que ya no están en {}", removed, topic);
+        } catch (Exception e) {
+            // Normalmente un juego o una participación aún apuntan a alguno; la vista ya está al día con el topic
+            log.warn("No se pudieron borrar los usuarios ausentes de {}: {}", topic, e.getMessage());
+        }
+    }
+
+    private static Long userIdOf(ConsumerRecord<String, byte[]> record) {
+        try {
+            return record.key() != null ? Long.valueOf(record.key()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Si el lote falla se aplica registro a registro y se saltan los ilegibles, que el listener en vivo ya
+    // envió en su día a user-events-fallback-dlt; un error de base de datos se propaga y reinicia la reconstrucción
+    private void applyBatch(List<ConsumerRecord<String, byte[]>> batch) {
+        try {
+            userViewSyncService.applyUserEvents(batch);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            for (ConsumerRecord<String, byte[]> record : batch) {
+                try {
+                    userViewSyncService.applyUserEvents(List.of(record));
+                } catch (IllegalArgumentException | UncheckedIOException recordError) {
+                    log.warn("Registro ilegible omitido en la reconstrucción (partición {}, offset {}): {}",
+                            record.partition(), record.offset(), recordError.getMessage());
+                }
+            }
+        }
+    }
+
+    // En un topic compactado los offsets tienen huecos, así que es una cota superior de lo que falta por leer
+    private static long remaining(Consumer<String, byte[]> consumer, Map<TopicPartition, Long> endOffsets) {
+        long remaining = 0;
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+            remaining += Math.max(0, entry.getValue() - consumer.position(entry.getKey()));
+        }
+        return remaining;
+    }
+
+    @Override
+    public UserViewBootstrapProgress getProgress() {
+        return new UserViewBootstrapProgress(state, recordsRead, recordsRemaining, startedAt, finishedAt, lastError);
+    }
+}
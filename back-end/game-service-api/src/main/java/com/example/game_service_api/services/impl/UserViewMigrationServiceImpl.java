@@ -9,6 +9,7 @@ import com.example.game_service_api.repositories.UserViewRepository;
 import com.example.game_service_api.services.UserViewMigrationService;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,20 +25,29 @@ public class UserViewMigrationServiceImpl implements UserViewMigrationService {
     private final UserViewRepository userViewRepository;
     private final RoleViewRepository roleViewRepository;
     
+    // En modo reconstrucción UserView se rellena desde user-events y no se recorren las tablas al arrancar
+    private final boolean bootstrapEnabled;
+    
     @Autowired
     public UserViewMigrationServiceImpl(
             GameRepository gameRepository,
             UserViewRepository userViewRepository,
-            RoleViewRepository roleViewRepository) {
+            RoleViewRepository roleViewRepository,
+            @Value("${users.bootstrap.enabled:false}") boolean bootstrapEnabled) {
         this.gameRepository = gameRepository;
         this.userViewRepository = userViewRepository;
         this.roleViewRepository = roleViewRepository;
+        this.bootstrapEnabled = bootstrapEnabled;
     }
     
     @PostConstruct
     @Transactional
     @Override
     public void migrateExistingGames() {
+        if (bootstrapEnabled) {
+            return;
+        }
+        
         // Obtener todos los juegos
         List<Game> games = gameRepository.findAll();
         
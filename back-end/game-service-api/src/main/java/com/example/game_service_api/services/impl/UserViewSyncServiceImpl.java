@@ -0,0 +1,91 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.events.EventCodec;
+import com.example.events.UserEvent;
+import com.example.game_service_api.commons.entities.UserView;
+import com.example.game_service_api.repositories.UserViewRepository;
+import com.example.game_service_api.services.UserViewSyncService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aplica lotes de registros de user-events sobre UserView. Lo usan tanto el listener en vivo como
+ * la reconstrucción completa desde el topic compactado (UserViewBootstrapServiceImpl).
+ *
+ * De cada usuario solo cuenta su último registro del lote (la clave es su id, así que llegan en orden),
+ * y los cambios se aplican con un upsert y un borrado masivos. Un registro sin valor es una lápida
+ * de compactación y equivale a un USER_DELETED. La marca de tiempo del evento viaja a la fila para que un
+ * reintento atrasado no deshaga un cambio posterior (ver UserViewRepositoryImpl).
+ */
+@Service
+public class UserViewSyncServiceImpl implements UserViewSyncService {
+    private final UserViewRepository userViewRepository;
+    private final EventCodec eventCodec;
+
+    @Autowired
+    public UserViewSyncServiceImpl(UserViewRepository userViewRepository, EventCodec eventCodec) {
+        this.userViewRepository = userViewRepository;
+        this.eventCodec = eventCodec;
+    }
+
+    @Override
+    @Transactional
+    public int applyUserEvents(List<ConsumerRecord<String, byte[]>> records) {
+        Map<Long, UserEvent> latest = new LinkedHashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            // Un registro ilegible lanza IllegalArgumentException/UncheckedIOException: quien llama lo aparta del lote
+            UserEvent event = record.value() == null
+                    ? new UserEvent("USER_DELETED", Long.valueOf(record.key()), null, null, null, null, null)
+                    : eventCodec.decode(record.value(), UserEvent.class);
+            if (event.getUserId() != null && isKnownEventType(event.getEventType())) {
+                latest.put(event.getUserId(), event);
+            }
+        }
+
+        List<UserView> upserts = new ArrayList<>();
+        Map<Long, LocalDateTime> deletes = new LinkedHashMap<>();
+        for (UserEvent event : latest.values()) {
+            if ("USER_DELETED".equals(event.getEventType())) {
+                deletes.put(event.getUserId(), event.getTimestamp());
+            } else {
+                upserts.add(toUserView(event));
+            }
+        }
+
+        userViewRepository.upsertAll(upserts);
+        userViewRepository.deleteAllIfNotNewer(deletes);
+        return latest.size();
+    }
+
+    /**
+     * Quita de UserView los usuarios que ya no están en user-events. La compactación acaba borrando también
+     * las lápidas, así que una reconstrucción no ve el borrado de un usuario eliminado hace tiempo
+     */
+    @Override
+    @Transactional
+    public int removeUsersNotIn(Collection<Long> userIds, LocalDateTime unchangedSince) {
+        return userViewRepository.deleteAllExcept(userIds, unchangedSince);
+    }
+
+    private static boolean isKnownEventType(String eventType) {
+        return "USER_CREATED".equals(eventType) || "USER_UPDATED".equals(eventType) || "USER_DELETED".equals(eventType);
+    }
+
+    private static UserView toUserView(UserEvent event) {
+        UserView userView = new UserView();
+        userView.setId(event.getUserId());
+        userView.setEmail(event.getEmail());
+        userView.setName(event.getName());
+        userView.setLastEventAt(event.getTimestamp());
+        return userView;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.game_service_api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Latencia de POST /join y /leave medida desde fuera contra una instancia en marcha, para comprobar que publicar
+ * las entradas y salidas en Kafka no encarece la petición. No es un test: se lanza a mano con
+ *
+ *   ./mvnw test-compile exec:java -Dexec.args="http://localhost:8081 1 1 200 20 16"
+ *
+ * (url, id del juego, primer id de usuario, usuarios, rondas, hilos). Los usuarios y el juego deben existir.
+ * Para comparar, se repite con la instancia arrancada con OUTBOX_RELAY_ONCOMMIT=false (solo el ciclo periódico
+ * del relay) y con el árbol anterior a la publicación de eventos de participación.
+ */
+public class JoinLatencyBenchmark {
+    private static final int WARMUP_ROUNDS = 2;
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        long gameId = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        long firstUserId = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int rounds = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : 16;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            run(client, executor, baseUrl, gameId, firstUserId, users, WARMUP_ROUNDS);
+
+            long start = System.nanoTime();
+            List<List<Long>> results = run(client, executor, baseUrl, gameId, firstUserId, users, rounds);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d usuarios x %d rondas, %d hilos, %.0f peticiones/s%n",
+                    users, rounds, threads, 2.0 * users * rounds / seconds);
+            print("join ", results.get(0));
+            print("leave", results.get(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Cada usuario entra y sale del juego una vez por ronda; devuelve las latencias en microsegundos [join, leave]
+    private static List<List<Long>> run(HttpClient client, ExecutorService executor, String baseUrl, long gameId,
+                                        long firstUserId, int users, int rounds) throws Exception {
+        List<Future<long[][]>> futures = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            long userId = firstUserId + i;
+            futures.add(executor.submit(() -> {
+                long[][] micros = new long[2][rounds];
+                for (int round = 0; round < rounds; round++) {
+                    micros[0][round] = post(client, baseUrl + "/v1/game-participations/join/" + gameId, userId);
+                    micros[1][round] = post(client, baseUrl + "/v1/game-participations/leave/" + gameId, userId);
+                }
+                return micros;
+            }));
+        }
+
+        List<Long> joins = new ArrayList<>(users * rounds);
+        List<Long> leaves = new ArrayList<>(users * rounds);
+        for (Future<long[][]> future : futures) {
+            long[][] micros = future.get();
+            for (int round = 0; round < rounds; round++) {
+                joins.add(micros[0][round]);
+                leaves.add(micros[1][round]);
+            }
+        }
+        return List.of(joins, leaves);
+    }
+
+    private static long post(HttpClient client, String url, long userId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("X-User-ID", Long.toString(userId))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        long micros = (System.nanoTime() - start) / 1_000;
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("POST " + url + " (usuario " + userId + ") respondió " + response.statusCode());
+        }
+        return micros;
+    }
+
+    private static void print(String label, List<Long> micros) {
+        Collections.sort(micros);
+        System.out.printf("  %s p50 %6.2f ms, p90 %6.2f ms, p99 %6.2f ms, máx %6.2f ms%n", label,
+                percentile(micros, 0.50) / 1000.0, percentile(micros, 0.90) / 1000.0,
+                percentile(micros, 0.99) / 1000.0, micros.get(micros.size() - 1) / 1000.0);
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.game_service_api;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base de los tests que necesitan un PostgreSQL real: las escrituras de participaciones se apoyan en índices
+ * parciales, ON CONFLICT y unnest, que una base en memoria no reproduce.
+ *
+ * Por defecto arranca un contenedor con Testcontainers, compartido por todas las clases de test. Donde no hay
+ * Docker se puede apuntar a una base ya arrancada con TEST_DATABASE_URL (y TEST_DATABASE_USERNAME/PASSWORD);
+ * sin ninguna de las dos cosas los tests se saltan en lugar de fallar, salvo con TEST_DATABASE_REQUIRED=true
+ * (la integración continua), donde fallan para que no pasen en verde sin haberse ejecutado.
+ */
+public abstract class PostgresContainerTest {
+    private static final String EXTERNAL_URL = System.getenv("TEST_DATABASE_URL");
+    private static final boolean REQUIRED = Boolean.parseBoolean(System.getenv("TEST_DATABASE_REQUIRED"));
+
+    private static PostgreSQLContainer<?> container;
+
+    @BeforeAll
+    static void requireDatabase() {
+        boolean available = EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable();
+        String message = "Sin Docker ni TEST_DATABASE_URL no hay PostgreSQL contra el que probar";
+        if (REQUIRED) {
+            assertTrue(available, message);
+        } else {
+            assumeTrue(available, message);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> envOrDefault("TEST_DATABASE_USERNAME", "postgres"));
+            registry.add("spring.datasource.password", () -> envOrDefault("TEST_DATABASE_PASSWORD", "postgres"));
+            return;
+        }
+        PostgreSQLContainer<?> postgres = startContainer();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static synchronized PostgreSQLContainer<?> startContainer() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.game_service_api.commons.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventDeduplicatorTest {
+    private static final String TOPIC = "game-events";
+
+    private final EventDeduplicator deduplicator = new EventDeduplicator(3);
+
+    @Test
+    void redeliveredOffsetsAreDuplicatesEvenWithoutId() {
+        deduplicator.markProcessed(TOPIC, 0, 10, null);
+
+        assertTrue(deduplicator.isDuplicate(TOPIC, 0, 10, null));
+        assertTrue(deduplicator.isDuplicate(TOPIC, 0, 3, null));
+        assertFalse(deduplicator.isDuplicate(TOPIC, 0, 11, null));
+        // Cada partición tiene su propia marca de agua
+        assertFalse(deduplicator.isDuplicate(TOPIC, 1, 3, null));
+        assertFalse(deduplicator.isDuplicate("user-events", 0, 3, null));
+    }
+
+    @Test
+    void watermarkNeverMovesBackwards() {
+        deduplicator.markProcessed(TOPIC, 0, 10, null);
+        deduplicator.markProcessed(TOPIC, 0, 4, null);
+
+        assertTrue(deduplicator.isDuplicate(TOPIC, 0, 9, null));
+    }
+
+    @Test
+    void sameEventWithANewOffsetIsADuplicate() {
+        UUID eventId = UUID.randomUUID();
+        deduplicator.markProcessed(TOPIC, 0, 10, eventId);
+
+        assertTrue(deduplicator.isDuplicate(TOPIC, 0, 25, eventId));
+        assertTrue(deduplicator.isDuplicate(TOPIC, 1, 0, eventId));
+        assertFalse(deduplicator.isDuplicate(TOPIC, 0, 25, UUID.randomUUID()));
+    }
+
+    @Test
+    void unprocessedEventsAreNotDuplicates() {
+        UUID eventId = UUID.randomUUID();
+        // Un evento que falló no se marcó: su reintento debe procesarse
+        assertFalse(deduplicator.isDuplicate(TOPIC, 0, 10, eventId));
+        assertFalse(deduplicator.isDuplicate(TOPIC, 0, 10, eventId));
+    }
+
+    @Test
+    void forgetsTheLeastRecentlyUsedIdsBeyondCapacity() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        deduplicator.markProcessed(TOPIC, 0, 1, first);
+        deduplicator.markProcessed(TOPIC, 0, 2, second);
+        deduplicator.markProcessed(TOPIC, 0, 3, UUID.randomUUID());
+        // Consultar first lo refresca: el siguiente en salir es second
+        assertTrue(deduplicator.isDuplicate(TOPIC, 1, 0, first));
+
+        deduplicator.markProcessed(TOPIC, 0, 4, UUID.randomUUID());
+
+        assertTrue(deduplicator.isDuplicate(TOPIC, 1, 0, first));
+        assertFalse(deduplicator.isDuplicate(TOPIC, 1, 0, second));
+    }
+
+    @Test
+    void markIfAbsentAcceptsEachIdOnce() {
+        UUID eventId = UUID.randomUUID();
+
+        assertTrue(deduplicator.markIfAbsent(eventId));
+        assertFalse(deduplicator.markIfAbsent(eventId));
+        assertTrue(deduplicator.isDuplicate(TOPIC, 0, 0, eventId));
+    }
+}
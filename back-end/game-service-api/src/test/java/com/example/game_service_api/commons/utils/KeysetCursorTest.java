@@ -0,0 +1,47 @@
+package com.example.game_service_api.commons.utils;
+
+import com.example.game_service_api.commons.exceptions.GameException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTrips() {
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("1767225600000", 42L).encode());
+        assertEquals("1767225600000", cursor.getSortValue());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void sortValuesMayContainTheSeparator() {
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("Partida|épica", 7L).encode());
+        assertEquals("Partida|épica", cursor.getSortValue());
+        assertEquals(7L, cursor.getId());
+    }
+
+    @Test
+    void encodingIsUrlSafe() {
+        String encoded = new KeysetCursor("??>>~~", Long.MAX_VALUE).encode();
+        assertFalse(encoded.contains("+") || encoded.contains("/") || encoded.contains("="), encoded);
+    }
+
+    @Test
+    void rejectsMalformedCursorsAsBadRequest() {
+        for (String cursor : new String[]{"%%%", "", encode("sin-separador"), encode("valor|no-es-un-id")}) {
+            GameException e = assertThrows(GameException.class, () -> KeysetCursor.decode(cursor), cursor);
+            assertEquals(HttpStatus.BAD_REQUEST, e.getHttpStatus());
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
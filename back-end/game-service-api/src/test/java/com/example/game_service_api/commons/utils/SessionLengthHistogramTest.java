@@ -0,0 +1,106 @@
+package com.example.game_service_api.commons.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionLengthHistogramTest {
+
+    @Test
+    void emptyHistogramReportsZero() {
+        SessionLengthHistogram histogram = new SessionLengthHistogram();
+        assertTrue(histogram.isEmpty());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0.0, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    void valuesBelowSixtyFourAreExact() {
+        SessionLengthHistogram histogram = new SessionLengthHistogram();
+        for (int minutes = 1; minutes <= 10; minutes++) {
+            histogram.record(minutes);
+        }
+        assertEquals(10, histogram.getTotalCount());
+        assertEquals(5.5, histogram.getMean());
+        assertEquals(5.0, histogram.valueAtPercentile(50));
+        assertEquals(9.0, histogram.valueAtPercentile(90));
+        assertEquals(10.0, histogram.valueAtPercentile(99));
+        assertEquals(10.0, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    void largeValuesStayWithinTheBucketError() {
+        for (long value : new long[]{64, 65, 100, 1_000, 12_345, 999_999, (1L << 24) - 1}) {
+            SessionLengthHistogram histogram = new SessionLengthHistogram();
+            histogram.record(value);
+            double reported = histogram.valueAtPercentile(50);
+            assertTrue(Math.abs(reported - value) <= value * 0.032, value + " -> " + reported);
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreClamped() {
+        SessionLengthHistogram histogram = new SessionLengthHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0.0, histogram.valueAtPercentile(50));
+        assertTrue(histogram.valueAtPercentile(100) < 1L << 24);
+    }
+
+    @Test
+    void mergingIsTheSameAsRecordingEverythingInOne() {
+        Random random = new Random(42);
+        SessionLengthHistogram all = new SessionLengthHistogram();
+        SessionLengthHistogram first = new SessionLengthHistogram();
+        SessionLengthHistogram second = new SessionLengthHistogram();
+        for (int i = 0; i < 5_000; i++) {
+            long minutes = (long) Math.abs(random.nextGaussian() * 300);
+            all.record(minutes);
+            (i % 2 == 0 ? first : second).record(minutes);
+        }
+
+        SessionLengthHistogram merged = first.copy().add(second);
+        assertEquals(all.getTotalCount(), merged.getTotalCount());
+        assertEquals(all.getMean(), merged.getMean());
+        for (double percentile : new double[]{1, 50, 90, 99, 100}) {
+            assertEquals(all.valueAtPercentile(percentile), merged.valueAtPercentile(percentile));
+        }
+        // copy() no comparte recuentos con el original
+        assertEquals(all.getTotalCount() / 2, first.getTotalCount());
+    }
+
+    @Test
+    void serializationRoundTrips() {
+        SessionLengthHistogram histogram = new SessionLengthHistogram();
+        for (long minutes : new long[]{0, 3, 3, 63, 64, 500, 70_000}) {
+            histogram.record(minutes);
+        }
+
+        byte[] bytes = histogram.toBytes();
+        SessionLengthHistogram restored = SessionLengthHistogram.fromBytes(bytes);
+        assertEquals(histogram.getTotalCount(), restored.getTotalCount());
+        assertEquals(histogram.getMean(), restored.getMean());
+        assertEquals(histogram.valueAtPercentile(90), restored.valueAtPercentile(90));
+        assertArrayEquals(bytes, restored.toBytes());
+        // Solo las cubetas con datos: versión, suma, número de cubetas y 6 pares (índice, recuento)
+        assertEquals(1 + 8 + 4 + 6 * (2 + 8), bytes.length);
+    }
+
+    @Test
+    void missingRowDeserializesAsEmpty() {
+        assertTrue(SessionLengthHistogram.fromBytes(null).isEmpty());
+        assertTrue(SessionLengthHistogram.fromBytes(new byte[0]).isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownFormatVersions() {
+        byte[] bytes = new SessionLengthHistogram().toBytes();
+        bytes[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> SessionLengthHistogram.fromBytes(bytes));
+    }
+}
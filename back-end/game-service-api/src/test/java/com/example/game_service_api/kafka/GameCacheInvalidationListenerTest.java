@@ -0,0 +1,97 @@
+package com.example.game_service_api.kafka;
+
+import com.example.events.EventCodec;
+import com.example.events.EventEncoding;
+import com.example.events.GameEvent;
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.GameRankingDTO;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.repositories.GameRepository;
+import com.example.game_service_api.services.GameCacheService;
+import com.example.game_service_api.services.ParticipationCounterService;
+import com.example.game_service_api.services.impl.GameRankingServiceImpl;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameCacheInvalidationListenerTest {
+    private static final long GAME_ID = 10L;
+    private static final long OTHER_GAME_ID = 20L;
+
+    private final EventCodec eventCodec = new EventCodec(EventEncoding.BINARY);
+    private final GameRepository gameRepository = mock(GameRepository.class);
+    private final ParticipationCounterService counterService = mock(ParticipationCounterService.class);
+    private final GameCacheService gameCacheService = mock(GameCacheService.class);
+    private GameRankingServiceImpl rankingService;
+    private GameCacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        when(gameRepository.findGameDTOsByStatus(GameStatus.ACTIVO)).thenReturn(List.of(
+                game(GAME_ID, "Cancelado en otra réplica", GameStatus.ACTIVO),
+                game(OTHER_GAME_ID, "Sigue activo", GameStatus.ACTIVO)));
+        when(counterService.getActiveParticipants(GAME_ID)).thenReturn(5);
+        when(counterService.getActiveParticipants(OTHER_GAME_ID)).thenReturn(3);
+        rankingService = new GameRankingServiceImpl(gameRepository, counterService, gameCacheService);
+        rankingService.rebuildRanking();
+        listener = new GameCacheInvalidationListener(gameCacheService, rankingService, eventCodec);
+    }
+
+    @Test
+    void gameCancelledOnAnotherReplicaLeavesTheRanking() {
+        listener.invalidateGame(record(GAME_ID, GameStatus.CANCELADO));
+
+        verify(gameCacheService).evict(GAME_ID);
+        List<GameRankingDTO> top = rankingService.getTopGames(10);
+        assertEquals(1, top.size());
+        assertEquals(OTHER_GAME_ID, top.get(0).getGameId());
+
+        // Las salidas que siguen llegando del juego cancelado no lo devuelven al ranking
+        when(gameCacheService.findById(GAME_ID)).thenReturn(game(GAME_ID, "Cancelado en otra réplica", GameStatus.CANCELADO));
+        rankingService.onParticipantsChanged(GAME_ID, 4);
+        assertEquals(1, rankingService.getTopGames(10).size());
+    }
+
+    @Test
+    void gameReactivatedOnAnotherReplicaReturnsToTheRanking() {
+        listener.invalidateGame(record(GAME_ID, GameStatus.CANCELADO));
+        listener.invalidateGame(record(GAME_ID, GameStatus.ACTIVO));
+
+        List<GameRankingDTO> top = rankingService.getTopGames(10);
+        assertEquals(GAME_ID, top.get(0).getGameId());
+        assertEquals("Cancelado en otra réplica", top.get(0).getName());
+    }
+
+    @Test
+    void unreadableEventsOnlyEvictTheCache() {
+        listener.invalidateGame(new ConsumerRecord<>("event.game-status-changed", 0, 0L, String.valueOf(GAME_ID), new byte[]{1, 2}));
+
+        verify(gameCacheService).evict(GAME_ID);
+        assertTrue(rankingService.getTopGames(10).stream().anyMatch(game -> game.getGameId() == GAME_ID));
+    }
+
+    private ConsumerRecord<String, byte[]> record(long gameId, GameStatus status) {
+        GameEvent event = new GameEvent();
+        event.setId(gameId);
+        event.setName("Cancelado en otra réplica");
+        event.setStatus(status.name());
+        event.assignIdentity();
+        return new ConsumerRecord<>("event.game-status-changed", 0, 0L, String.valueOf(gameId), eventCodec.encode(event));
+    }
+
+    private static GameDTO game(long id, String name, GameStatus status) {
+        GameDTO game = new GameDTO();
+        game.setId(id);
+        game.setName(name);
+        game.setStatus(status);
+        return game;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.PostgresContainerTest;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.commons.entities.UserView;
+import com.example.game_service_api.services.impl.DatabaseIndexInitializerServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Muchos hilos uniéndose a la vez al mismo juego con el mismo usuario, cada uno en su propia transacción:
+ * el índice único parcial deja una sola participación activa y solo una de las inserciones devuelve id.
+ */
+@DataJpaTest(includeFilters = @ComponentScan.Filter(
+        type = FilterType.ASSIGNABLE_TYPE, classes = DatabaseIndexInitializerServiceImpl.class))
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GameParticipationRepositoryConcurrencyTest extends PostgresContainerTest {
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 20;
+    private static final long PLAYER_ID = 900_002L;
+    private static final String GAME_NAME = "Juego concurrido";
+
+    @Autowired
+    private GameParticipationRepository participationRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private UserViewRepository userViewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserView player;
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        player = new UserView();
+        player.setId(PLAYER_ID);
+        player.setEmail("jugador-concurrente@example.com");
+        player.setName("concurrente");
+        player = userViewRepository.save(player);
+
+        game = new Game();
+        game.setName(GAME_NAME);
+        game.setStatus(GameStatus.ACTIVO);
+        game.setGameType("ARCADE");
+        game.setIsPublic(true);
+        game.setCreatedAt(new Date());
+        game.setLastUpdated(new Date());
+        game = gameRepository.save(game);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM game_participations WHERE user_id = ?", PLAYER_ID);
+        jdbcTemplate.update("DELETE FROM games WHERE name = ?", GAME_NAME);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", PLAYER_ID);
+    }
+
+    @Test
+    void concurrentJoinsOfTheSameUserAndGameLeaveOneActiveParticipation() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<List<Long>>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return transaction.execute(status -> participationRepository.insertActiveIfAbsent(
+                                List.of(new ParticipationRequest(player.getId(), game.getId())), LocalDateTime.now()));
+                    }));
+                }
+                start.countDown();
+
+                int inserted = 0;
+                for (Future<List<Long>> future : futures) {
+                    inserted += future.get(30, TimeUnit.SECONDS).size();
+                }
+                assertEquals(1, inserted, "ronda " + round);
+                assertEquals(1, countActive(), "ronda " + round);
+
+                // Se cierra para que la siguiente ronda vuelva a competir por la inserción
+                jdbcTemplate.update("UPDATE game_participations SET is_active = false, left_at = now() WHERE user_id = ? AND is_active", PLAYER_ID);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(ROUNDS, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM game_participations WHERE user_id = ?", Integer.class, PLAYER_ID));
+    }
+
+    @Test
+    void insertsTakeConsecutiveIds() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.addAll(participationRepository.insertActiveIfAbsent(
+                    List.of(new ParticipationRequest(player.getId(), game.getId())), LocalDateTime.now()));
+            jdbcTemplate.update("UPDATE game_participations SET is_active = false, left_at = now() WHERE user_id = ? AND is_active", PLAYER_ID);
+        }
+        assertEquals(3, ids.size());
+        assertEquals(ids.get(0) + 1, ids.get(1));
+        assertEquals(ids.get(1) + 1, ids.get(2));
+    }
+
+    private int countActive() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM game_participations WHERE user_id = ? AND game_id = ? AND is_active",
+                Integer.class, player.getId(), game.getId());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.game_service_api.repositories;
+
+import com.example.game_service_api.PostgresContainerTest;
+import com.example.game_service_api.commons.entities.UserView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limpieza tras reconstruir UserView desde user-events: se borran los usuarios que no aparecen en el topic,
+ * salvo los que recibieron un evento después de empezar la lectura.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserViewRepositoryDeleteAllExceptTest extends PostgresContainerTest {
+    private static final LocalDateTime REPLAY_STARTED_AT = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private UserViewRepository userViewRepository;
+
+    @Test
+    void deletesOnlyUsersMissingFromTheReplay() {
+        userViewRepository.upsertAll(List.of(
+                user(900_101L, REPLAY_STARTED_AT.minusDays(1)), // en el topic
+                user(900_102L, REPLAY_STARTED_AT.minusDays(1)), // borrado hace tiempo, ya sin lápida
+                user(900_103L, null),                           // sin eventos, tampoco en el topic
+                user(900_104L, REPLAY_STARTED_AT.plusMinutes(1)))); // alta durante la lectura
+
+        userViewRepository.deleteAllExcept(List.of(900_101L), REPLAY_STARTED_AT);
+
+        assertTrue(userViewRepository.existsById(900_101L));
+        assertFalse(userViewRepository.existsById(900_102L));
+        assertFalse(userViewRepository.existsById(900_103L));
+        assertTrue(userViewRepository.existsById(900_104L));
+    }
+
+    private static UserView user(Long id, LocalDateTime lastEventAt) {
+        UserView user = new UserView();
+        user.setId(id);
+        user.setEmail("usuario" + id + "@example.com");
+        user.setName("usuario" + id);
+        user.setLastEventAt(lastEventAt);
+        return user;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.PostgresContainerTest;
+import com.example.game_service_api.commons.dto.GameDTO;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.dto.TimePlayedStats;
+import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.commons.entities.UserView;
+import com.example.game_service_api.kafka.GameEventProducer;
+import com.example.game_service_api.kafka.ParticipationEventStartOffsets;
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import com.example.game_service_api.repositories.GameRepository;
+import com.example.game_service_api.repositories.UserViewRepository;
+import com.example.game_service_api.services.GameCacheService;
+import com.example.game_service_api.services.GameParticipationService;
+import com.example.game_service_api.services.GameRankingService;
+import com.example.game_service_api.services.PresenceRegistryService;
+import com.example.game_service_api.services.TimePlayedStatsService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * El número de sentencias del listado de juegos y de la carga de los contadores de participación no depende de
+ * cuántos juegos haya: se cuentan con las estadísticas de Hibernate para 1 juego y para muchos.
+ */
+@DataJpaTest(
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true",
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+                GameServiceImpl.class, ParticipationCounterServiceImpl.class, DatabaseIndexInitializerServiceImpl.class}))
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class GameServiceImplStatementCountTest extends PostgresContainerTest {
+    private static final int MANY_GAMES = 40;
+
+    @MockBean
+    private GameParticipationService participationService;
+
+    @MockBean
+    private GameEventProducer gameEventProducer;
+
+    @MockBean
+    private GameCacheService gameCacheService;
+
+    @MockBean
+    private GameRankingService gameRankingService;
+
+    @MockBean
+    private TimePlayedStatsService timePlayedStatsService;
+
+    @MockBean
+    private PresenceRegistryService presenceRegistry;
+
+    @MockBean(name = "participationEventStartOffsets")
+    private ParticipationEventStartOffsets startOffsets;
+
+    @Autowired
+    private GameServiceImpl gameService;
+
+    @Autowired
+    private ParticipationCounterServiceImpl counterService;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private UserViewRepository userViewRepository;
+
+    @Autowired
+    private GameParticipationRepository participationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UserView player;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        when(participationService.getTimePlayedStats(any())).thenReturn(TimePlayedStats.EMPTY);
+
+        player = new UserView();
+        player.setId(900_001L);
+        player.setEmail("jugador-estadisticas@example.com");
+        player.setName("jugador");
+        player = userViewRepository.saveAndFlush(player);
+    }
+
+    @Test
+    void getAllGamesRunsTheSameStatementsForOneAndManyGames() {
+        createGamesWithParticipants(1);
+        long oneGame = countStatements(() -> assertEquals(1, gameService.getAllGames().size()));
+
+        createGamesWithParticipants(MANY_GAMES - 1);
+        long manyGames = countStatements(() -> {
+            List<GameDTO> games = gameService.getAllGames();
+            assertEquals(MANY_GAMES, games.size());
+        });
+
+        assertEquals(1, oneGame);
+        assertEquals(oneGame, manyGames);
+    }
+
+    @Test
+    void participationCountersAreLoadedWithTheSameStatementsForAnyNumberOfGames() {
+        createGamesWithParticipants(1);
+        long oneGame = countStatements(counterService::rebuildFromGames);
+
+        createGamesWithParticipants(MANY_GAMES - 1);
+        long manyGames = countStatements(counterService::rebuildFromGames);
+
+        // La comprobación de juegos sin contadores, la lectura de games con sus incrementos pendientes
+        // y la de las participaciones recién cerradas
+        assertEquals(3, oneGame);
+        assertEquals(oneGame, manyGames);
+    }
+
+    @Test
+    void gamesWithoutCountersAreInitializedOnceFromTheirHistory() {
+        createGamesWithParticipants(1);
+        Long gameId = firstGameId();
+        entityManager.createNativeQuery("INSERT INTO game_participations_archive " +
+                        "(id, user_id, game_id, joined_at, left_at, is_active, time_played_minutes) " +
+                        "VALUES (nextval('game_participations_seq'), ?1, ?2, ?3, ?3, false, 30)")
+                .setParameter(1, player.getId())
+                .setParameter(2, gameId)
+                .setParameter(3, LocalDateTime.of(2026, 1, 10, 20, 0))
+                .executeUpdate();
+        // Un juego anterior a las columnas de contadores, con el incremento de su unión aún pendiente
+        entityManager.createNativeQuery("UPDATE games SET active_participants_count = NULL, total_sessions = NULL, " +
+                "total_minutes_played = NULL WHERE id = ?1").setParameter(1, gameId).executeUpdate();
+
+        counterService.rebuildFromGames();
+
+        // La unión cuenta una vez: el historial ya la incluye y su incremento pendiente se descarta
+        assertEquals(1, persistedActiveParticipants(gameId));
+        assertEquals(30.0, counterService.getAverageTimePlayed(gameId));
+        assertEquals(0L, countPendingDeltas(gameId));
+        assertEquals(3, countStatements(counterService::rebuildFromGames));
+    }
+
+    @Test
+    void flushMovesPendingDeltasIntoGames() {
+        createGamesWithParticipants(1);
+        Long gameId = firstGameId();
+
+        counterService.flushToGames();
+
+        assertEquals(0L, countPendingDeltas(gameId));
+        assertEquals(1, persistedActiveParticipants(gameId));
+    }
+
+    // Cada juego nuevo recibe una participación activa del mismo jugador
+    private void createGamesWithParticipants(int count) {
+        for (int i = 0; i < count; i++) {
+            Game game = new Game();
+            game.setName("Juego " + i);
+            game.setStatus(GameStatus.ACTIVO);
+            game.setGameType("STRATEGY");
+            game.setIsPublic(true);
+            game.setCreatedAt(new Date());
+            game.setLastUpdated(new Date());
+            game = gameRepository.saveAndFlush(game);
+            List<Long> created = participationRepository.insertActiveIfAbsent(
+                    List.of(new ParticipationRequest(player.getId(), game.getId())), LocalDateTime.now());
+            // El incremento que la unión anota en su transacción (ver GameParticipationServiceImpl)
+            gameRepository.insertCounterDeltas(participationRepository.findAllById(created), false);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Long firstGameId() {
+        return gameRepository.findAllGameDTOs().get(0).getId();
+    }
+
+    private int persistedActiveParticipants(Long gameId) {
+        return ((Number) entityManager.createNativeQuery("SELECT active_participants_count FROM games WHERE id = ?1")
+                .setParameter(1, gameId).getSingleResult()).intValue();
+    }
+
+    private long countPendingDeltas(Long gameId) {
+        return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM game_counter_deltas WHERE game_id = ?1")
+                .setParameter(1, gameId).getSingleResult()).longValue();
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
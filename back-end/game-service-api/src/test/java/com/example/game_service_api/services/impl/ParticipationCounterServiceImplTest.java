@@ -0,0 +1,177 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.events.ParticipationEvent;
+import com.example.game_service_api.PostgresContainerTest;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.commons.entities.Game;
+import com.example.game_service_api.commons.entities.GameParticipation;
+import com.example.game_service_api.commons.entities.GameStatus;
+import com.example.game_service_api.commons.entities.UserView;
+import com.example.game_service_api.kafka.GameEventProducer;
+import com.example.game_service_api.kafka.ParticipationEventStartOffsets;
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import com.example.game_service_api.repositories.GameRepository;
+import com.example.game_service_api.repositories.UserViewRepository;
+import com.example.game_service_api.services.GameRankingService;
+import com.example.game_service_api.services.OutboxRelayService;
+import com.example.game_service_api.services.SessionExpiryService;
+import com.example.game_service_api.services.TimePlayedStatsService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Una unión y una salida confirmadas entre la captura de los offsets y la reconstrucción están en lo que se
+ * reconstruye y además llegan después por Kafka: deben contarse una sola vez.
+ */
+@DataJpaTest(includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+        GameParticipationServiceImpl.class, ParticipationCounterServiceImpl.class,
+        PresenceRegistryServiceImpl.class, DatabaseIndexInitializerServiceImpl.class}))
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ParticipationCounterServiceImplTest extends PostgresContainerTest {
+    private static final LocalDateTime CAPTURED_AT = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @MockBean
+    private GameEventProducer gameEventProducer;
+
+    @MockBean
+    private GameRankingService rankingService;
+
+    @MockBean
+    private SessionExpiryService sessionExpiry;
+
+    @MockBean
+    private TimePlayedStatsService timePlayedStats;
+
+    @MockBean
+    private OutboxRelayService outboxRelay;
+
+    @MockBean
+    private SimpMessagingTemplate messagingTemplate;
+
+    @MockBean(name = "participationEventStartOffsets")
+    private ParticipationEventStartOffsets startOffsets;
+
+    @Autowired
+    private GameParticipationServiceImpl participationService;
+
+    @Autowired
+    private ParticipationCounterServiceImpl counterService;
+
+    @Autowired
+    private PresenceRegistryServiceImpl presenceRegistry;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private GameParticipationRepository participationRepository;
+
+    @Autowired
+    private UserViewRepository userViewRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long gameId;
+    private UserView first;
+    private UserView second;
+
+    @BeforeEach
+    void setUp() {
+        when(startOffsets.closedSince()).thenReturn(CAPTURED_AT.minusSeconds(10));
+        first = userViewRepository.saveAndFlush(user(900_201L));
+        second = userViewRepository.saveAndFlush(user(900_202L));
+        Game game = new Game();
+        game.setName("Juego de la reconstrucción");
+        game.setStatus(GameStatus.ACTIVO);
+        game.setCreatedAt(new Date());
+        game.setLastUpdated(new Date());
+        gameId = gameRepository.saveAndFlush(game).getId();
+    }
+
+    @Test
+    void changesCommittedBetweenCaptureAndRebuildAreCountedOnce() {
+        // Antes de fijar los offsets: una sesión de 10 minutos y un jugador que sigue dentro
+        leave(join(first, CAPTURED_AT.minusHours(1)), CAPTURED_AT.minusMinutes(50));
+        GameParticipation stillPlaying = join(second, CAPTURED_AT.minusMinutes(30));
+
+        // Entre la captura y la reconstrucción: ese jugador sale tras 30 minutos y el primero vuelve a entrar
+        GameParticipation closed = leave(stillPlaying, CAPTURED_AT.plusSeconds(30));
+        GameParticipation rejoined = join(first, CAPTURED_AT.plusSeconds(40));
+
+        presenceRegistry.rebuildPresence();
+        counterService.rebuildFromGames();
+        assertEquals(1, counterService.getActiveParticipants(gameId));
+        assertEquals(20.0, counterService.getAverageTimePlayed(gameId));
+
+        // Sus eventos se publicaron detrás de los offsets capturados y llegan ahora por Kafka
+        participationService.applyParticipationEvents(List.of(event(ParticipationEvent.LEFT, closed), event(ParticipationEvent.JOINED, rejoined)));
+        assertEquals(1, counterService.getActiveParticipants(gameId));
+        assertEquals(20.0, counterService.getAverageTimePlayed(gameId));
+
+        // Lo confirmado después de reconstruir sí se cuenta
+        rejoined.setLeftAt(CAPTURED_AT.plusMinutes(51));
+        rejoined.setIsActive(false);
+        rejoined.setTimePlayedMinutes(50);
+        participationService.applyParticipationEvents(List.of(event(ParticipationEvent.LEFT, rejoined)));
+        assertEquals(0, counterService.getActiveParticipants(gameId));
+        assertEquals(30.0, counterService.getAverageTimePlayed(gameId));
+    }
+
+    // Une al jugador como lo hace GameParticipationServiceImpl: la fila y su incremento en la misma transacción
+    private GameParticipation join(UserView player, LocalDateTime joinedAt) {
+        List<Long> ids = participationRepository.insertActiveIfAbsent(
+                List.of(new ParticipationRequest(player.getId(), gameId)), joinedAt);
+        GameParticipation participation = participationRepository.findById(ids.get(0)).orElseThrow();
+        gameRepository.insertCounterDeltas(List.of(participation), false);
+        entityManager.detach(participation);
+        return participation;
+    }
+
+    private GameParticipation leave(GameParticipation participation, LocalDateTime leftAt) {
+        participation.setLeftAt(leftAt);
+        participation.setIsActive(false);
+        participation.setTimePlayedMinutes((int) Duration.between(participation.getJoinedAt(), leftAt).toMinutes());
+        participationRepository.closeIfActive(List.of(participation));
+        gameRepository.insertCounterDeltas(List.of(participation), true);
+        return participation;
+    }
+
+    private static ParticipationEvent event(String type, GameParticipation participation) {
+        ParticipationEvent event = new ParticipationEvent();
+        event.setEventType(type);
+        event.setEventId(UUID.randomUUID());
+        event.setParticipationId(participation.getId());
+        event.setUserId(participation.getUser().getId());
+        event.setGameId(participation.getGame().getId());
+        event.setJoinedAt(participation.getJoinedAt());
+        event.setLeftAt(participation.getLeftAt());
+        event.setTimePlayedMinutes(participation.getTimePlayedMinutes());
+        return event;
+    }
+
+    private static UserView user(Long id) {
+        UserView user = new UserView();
+        user.setId(id);
+        user.setEmail("jugador" + id + "@example.com");
+        user.setName("jugador" + id);
+        return user;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.GameParticipationDTO;
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+
+class PresenceRegistryServiceImplTest {
+    private static final long GAME_ID = 10L;
+    private static final LocalDateTime JOINED_AT = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Test
+    void repeatedEventsDoNotChangeTheActiveCount() {
+        PresenceRegistryServiceImpl registry = registry();
+        registry.onJoined(joined(1L, 100L));
+        registry.onJoined(joined(1L, 100L));
+        registry.onJoined(joined(2L, 101L));
+        assertEquals(2, registry.getActiveCount(GAME_ID));
+
+        registry.onLeft(left(1L, 100L));
+        registry.onLeft(left(1L, 100L));
+        assertEquals(1, registry.getActiveCount(GAME_ID));
+    }
+
+    @Test
+    void replicasApplyingTheSameEventsInAnyOrderAgree() {
+        PresenceRegistryServiceImpl first = registry();
+        first.onJoined(joined(1L, 100L));
+        first.onJoined(joined(2L, 101L));
+        first.onLeft(left(1L, 100L));
+        first.onJoined(joined(1L, 102L));
+
+        // La salida llega antes que su unión y la segunda unión antes que la primera
+        PresenceRegistryServiceImpl second = registry();
+        second.onLeft(left(1L, 100L));
+        second.onJoined(joined(1L, 102L));
+        second.onJoined(joined(1L, 100L));
+        second.onJoined(joined(2L, 101L));
+
+        assertEquals(2, first.getActiveCount(GAME_ID));
+        assertEquals(first.getActiveCount(GAME_ID), second.getActiveCount(GAME_ID));
+        assertEquals(first.getDigest(GAME_ID), second.getDigest(GAME_ID));
+        assertEquals(first.getDigest(), second.getDigest());
+    }
+
+    @Test
+    void digestDependsOnWhoIsPlayingNotOnHowMany() {
+        PresenceRegistryServiceImpl first = registry();
+        first.onJoined(joined(1L, 100L));
+        PresenceRegistryServiceImpl second = registry();
+        second.onJoined(joined(2L, 101L));
+
+        assertEquals(first.getActiveCount(GAME_ID), second.getActiveCount(GAME_ID));
+        assertNotEquals(first.getDigest(GAME_ID), second.getDigest(GAME_ID));
+
+        second.onLeft(left(2L, 101L));
+        assertEquals(0L, second.getDigest(GAME_ID));
+        assertEquals(0L, second.getDigest());
+    }
+
+    private static PresenceRegistryServiceImpl registry() {
+        return new PresenceRegistryServiceImpl(mock(GameParticipationRepository.class));
+    }
+
+    private static GameParticipationDTO joined(Long userId, Long participationId) {
+        return new GameParticipationDTO(participationId, userId, null, GAME_ID, null, JOINED_AT, null, true, 0);
+    }
+
+    private static GameParticipationDTO left(Long userId, Long participationId) {
+        return new GameParticipationDTO(participationId, userId, null, GAME_ID, null, JOINED_AT, JOINED_AT.plusMinutes(20), false, 20);
+    }
+}
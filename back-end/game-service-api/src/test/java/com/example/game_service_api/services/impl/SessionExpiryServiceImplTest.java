@@ -0,0 +1,209 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.dto.ParticipationHeartbeat;
+import com.example.game_service_api.commons.dto.ParticipationRequest;
+import com.example.game_service_api.repositories.GameParticipationRepository;
+import com.example.game_service_api.services.GameParticipationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionExpiryServiceImplTest {
+    private static final long TICK = 10;
+    private static final long TIMEOUT = 500;
+    private static final int WHEEL_SIZE = 64;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+    private final Set<String> expired = ConcurrentHashMap.newKeySet();
+    private final Set<String> aliveElsewhere = ConcurrentHashMap.newKeySet();
+    private GameParticipationRepository repository;
+    private GameParticipationService participationService;
+    private SessionExpiryServiceImpl expiry;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(GameParticipationRepository.class);
+        participationService = mock(GameParticipationService.class);
+        // Último latido guardado: ahora para las sesiones que otra réplica mantiene vivas, hace mucho para el resto
+        when(repository.findActiveHeartbeats(anyCollection())).thenAnswer(invocation -> {
+            Collection<ParticipationRequest> requests = invocation.getArgument(0);
+            return requests.stream().map(request -> new ParticipationHeartbeat(request.getUserId(), request.getGameId(),
+                    aliveElsewhere.contains(key(request)) ? clock.now() : LocalDateTime.of(2000, 1, 1, 0, 0))).toList();
+        });
+        when(participationService.leaveGames(anyList())).thenAnswer(invocation -> {
+            List<ParticipationRequest> requests = invocation.getArgument(0);
+            requests.forEach(request -> assertTrue(expired.add(key(request)), "expirada dos veces: " + key(request)));
+            return List.of();
+        });
+        expiry = new SessionExpiryServiceImpl(repository, participationService, clock, TIMEOUT, TICK, WHEEL_SIZE);
+    }
+
+    @Test
+    void expiresSessionsThatStopSendingHeartbeats() {
+        expiry.track(1L, 10L);
+        expiry.track(2L, 10L);
+
+        advanceBy(TIMEOUT - TICK);
+        expiry.heartbeat(2L, 10L);
+        assertTrue(expired.isEmpty());
+
+        advanceBy(2 * TICK);
+        assertEquals(Set.of("1:10"), expired);
+
+        advanceBy(TIMEOUT);
+        assertEquals(Set.of("1:10", "2:10"), expired);
+    }
+
+    @Test
+    void heartbeatsReceivedByAnotherReplicaKeepTheSessionOpen() {
+        expiry.track(1L, 10L);
+        aliveElsewhere.add("1:10");
+
+        advanceBy(3 * TIMEOUT);
+        assertTrue(expired.isEmpty());
+        verify(participationService, never()).leaveGames(anyList());
+
+        aliveElsewhere.clear();
+        advanceBy(TIMEOUT + TICK);
+        assertEquals(Set.of("1:10"), expired);
+    }
+
+    @Test
+    void heartbeatsAreSavedInOneStatementPerSweep() {
+        expiry.track(1L, 10L);
+        expiry.track(2L, 10L);
+        expiry.heartbeat(1L, 10L);
+        expiry.heartbeat(2L, 10L);
+        expiry.heartbeat(1L, 10L);
+        // Sin sesión vigilada el latido no se guarda
+        assertFalse(expiry.heartbeat(3L, 10L));
+
+        clock.advance(TICK);
+        expiry.advance();
+        verify(repository, times(1)).touchHeartbeats(
+                argThat(requests -> requests.size() == 2), any(LocalDateTime.class));
+
+        clock.advance(TICK);
+        expiry.advance();
+        verify(repository, times(1)).touchHeartbeats(anyCollection(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void untrackedSessionsNeverExpire() {
+        expiry.track(1L, 10L);
+        expiry.untrack(1L, 10L);
+
+        advanceBy(2 * TIMEOUT);
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void sessionsTrackedWhileTheWheelAdvancesAreNotLost() throws Exception {
+        int threads = 8;
+        int sessionsPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                long userId = t;
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (long gameId = 0; gameId < sessionsPerThread; gameId++) {
+                        expiry.track(userId, gameId);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            boolean running = true;
+            while (running) {
+                clock.advance(TICK);
+                expiry.advance();
+                running = false;
+                for (Future<?> future : futures) {
+                    running |= !future.isDone();
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        advanceBy(TIMEOUT + TICK);
+        assertEquals(threads * sessionsPerThread, expired.size());
+    }
+
+    // Avanza el reloj tick a tick, barriendo la rueda en cada uno como hace la tarea programada
+    private void advanceBy(long millis) {
+        for (long elapsed = 0; elapsed < millis; elapsed += TICK) {
+            clock.advance(TICK);
+            expiry.advance();
+        }
+    }
+
+    private static String key(ParticipationRequest request) {
+        return request.getUserId() + ":" + request.getGameId();
+    }
+
+    private static final class MutableClock extends Clock {
+        private final AtomicLong millis;
+
+        private MutableClock(long millis) {
+            this.millis = new AtomicLong(millis);
+        }
+
+        private void advance(long delta) {
+            millis.addAndGet(delta);
+        }
+
+        private LocalDateTime now() {
+            return LocalDateTime.ofInstant(instant(), getZone());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+}
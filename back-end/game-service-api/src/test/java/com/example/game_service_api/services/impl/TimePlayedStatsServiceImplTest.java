@@ -0,0 +1,143 @@
+package com.example.game_service_api.services.impl;
+
+import com.example.game_service_api.commons.entities.GameTimeHistogram;
+import com.example.game_service_api.commons.utils.SessionLengthHistogram;
+import com.example.game_service_api.repositories.GameTimeHistogramRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimePlayedStatsServiceImplTest {
+    private static final long GAME_ID = 10L;
+    private static final long OTHER_GAME_ID = 20L;
+
+    // Filas confirmadas de game_time_histograms y las escritas en la transacción en curso
+    private final Map<Long, GameTimeHistogram> committed = new ConcurrentHashMap<>();
+    private final Map<Long, GameTimeHistogram> written = new ConcurrentHashMap<>();
+    private TimePlayedStatsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        GameTimeHistogramRepository repository = mock(GameTimeHistogramRepository.class);
+        when(repository.count()).thenAnswer(invocation -> (long) committed.size() + 1);
+        when(repository.findAll()).thenAnswer(invocation -> {
+            Map<Long, GameTimeHistogram> visible = new ConcurrentHashMap<>(committed);
+            visible.putAll(written);
+            return new ArrayList<>(visible.values());
+        });
+        when(repository.findAllForUpdate(anyCollection())).thenAnswer(invocation ->
+                new ArrayList<>(committed.values()));
+        when(repository.save(any(GameTimeHistogram.class))).thenAnswer(invocation -> {
+            GameTimeHistogram row = invocation.getArgument(0);
+            written.put(row.getGameId(), new GameTimeHistogram(row.getGameId(), row.getHistogram(), row.getUpdatedAt()));
+            return row;
+        });
+        service = new TimePlayedStatsServiceImpl(repository, mock(JdbcTemplate.class));
+        service.loadHistograms();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void sessionsShowUpOnceTheirFlushCommits() {
+        service.recordSession(GAME_ID, 30);
+        service.recordSession(GAME_ID, 90);
+        // Lo pendiente es solo de esta réplica: no se ve hasta que está en la base compartida
+        assertEquals(0, service.getStats(GAME_ID).getSessions());
+
+        List<TransactionSynchronization> synchronizations = flush();
+        assertEquals(0, service.getStats(GAME_ID).getSessions());
+        assertEquals(0L, service.getLastUpdatedAt(GAME_ID));
+        assertEquals(0L, service.getDigest());
+
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(2, service.getStats(GAME_ID).getSessions());
+        assertEquals(60.0, service.getStats(GAME_ID).getMean());
+        assertTrue(service.getLastUpdatedAt(GAME_ID) > 0);
+        assertEquals(service.getLastUpdatedAt(GAME_ID), service.getLastUpdatedAt());
+    }
+
+    @Test
+    void rolledBackFlushIsRetried() {
+        service.recordSession(GAME_ID, 30);
+
+        complete(flush(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, service.getStats(GAME_ID).getSessions());
+        assertTrue(committed.isEmpty());
+
+        service.recordSession(GAME_ID, 40);
+        complete(flush(), TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(2, service.getStats(GAME_ID).getSessions());
+        assertEquals(2, SessionLengthHistogram.fromBytes(committed.get(GAME_ID).getHistogram()).getTotalCount());
+    }
+
+    @Test
+    void everyFlushReloadsHistogramsWrittenByOtherReplicas() {
+        SessionLengthHistogram remote = new SessionLengthHistogram();
+        remote.record(5);
+        remote.record(500);
+        committed.put(OTHER_GAME_ID, new GameTimeHistogram(OTHER_GAME_ID, remote.toBytes(), new Date(1_000L)));
+
+        // Sin nada pendiente en esta réplica
+        complete(flush(), TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(2, service.getStats(OTHER_GAME_ID).getSessions());
+        assertEquals(1_000L, service.getLastUpdatedAt(OTHER_GAME_ID));
+    }
+
+    @Test
+    void digestChangesWithAnyRowEvenIfItsUpdatedAtIsOlder() {
+        committed.put(GAME_ID, new GameTimeHistogram(GAME_ID, new SessionLengthHistogram().toBytes(), new Date(5_000L)));
+        complete(flush(), TransactionSynchronization.STATUS_COMMITTED);
+        long before = service.getDigest();
+
+        // Volcado de una réplica con el reloj atrasado: el máximo de updated_at no se mueve, la huella sí
+        committed.put(OTHER_GAME_ID, new GameTimeHistogram(OTHER_GAME_ID, new SessionLengthHistogram().toBytes(), new Date(1_000L)));
+        complete(flush(), TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(5_000L, service.getLastUpdatedAt());
+        assertNotEquals(before, service.getDigest());
+
+        // Otra réplica que cargue las mismas filas calcula la misma huella
+        long digest = service.getDigest();
+        service.loadHistograms();
+        assertEquals(digest, service.getDigest());
+    }
+
+    // Ejecuta un volcado como lo haría @Transactional, sin completar aún la transacción
+    private List<TransactionSynchronization> flush() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.flushHistograms();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            committed.putAll(written);
+        }
+        written.clear();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
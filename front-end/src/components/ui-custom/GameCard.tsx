@@ -23,6 +23,9 @@ import { gameService } from '@/lib/api';
 import { useToast } from "@/hooks/use-toast";
 import { useAuth } from '@/auth/AuthContext';
 
+// Debe coincidir con participation.heartbeat.interval en game-service-api
+const HEARTBEAT_INTERVAL_MS = 30000;
+
 interface GameCardProps {
   game: Game;
   onStatusUpdate?: () => void; // Callback para actualizar la lista de juegos
@@ -56,6 +59,22 @@ const GameCard: React.FC<GameCardProps> = ({ game, onStatusUpdate }) => {
     }
   }, [game.id, game.status]);
 
+  // Enviar latidos mientras el usuario participa para que el backend no cierre la participación
+  useEffect(() => {
+    if (!isParticipating || game.status !== 'activo') {
+      return;
+    }
+    
+    const interval = setInterval(async () => {
+      const stillActive = await gameService.sendHeartbeat(game.id.toString());
+      if (!stillActive) {
+        setIsParticipating(false);
+      }
+    }, HEARTBEAT_INTERVAL_MS);
+    
+    return () => clearInterval(interval);
+  }, [isParticipating, game.id, game.status]);
+
   // Cerrar el menú cuando se hace clic fuera de él
   useEffect(() => {
     const handleClickOutside = (event: MouseEvent) => {
@@ -118,6 +118,32 @@ export const gameService = {
     return response.data;
   },
   
+  // Latido periódico mientras el usuario participa; si deja de enviarse el backend cierra la participación.
+  // Devuelve false si la participación ya no está activa (por ejemplo, porque expiró)
+  sendHeartbeat: async (gameId: string | number): Promise<boolean> => {
+    const userId = getUserIdFromStorage();
+    const numericGameId = typeof gameId === 'string' ? parseInt(gameId, 10) : gameId;
+    
+    try {
+      await apiClient.post(`/v1/game-participations/heartbeat/${numericGameId}`, 
+        null,
+        {
+          headers: { 
+            'Content-Type': 'application/json',
+            'X-User-ID': userId
+          }
+        }
+      );
+      return true;
+    } catch (error: any) {
+      if (error?.response?.status === 404) {
+        return false;
+      }
+      console.error('Error enviando latido:', error);
+      return true;
+    }
+  },
+  
   isUserParticipating: async (gameId: string | number): Promise<boolean> => {
     const userId = getUserIdFromStorage();
     // Convertir gameId a número si es una cadena
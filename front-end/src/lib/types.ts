@@ -19,6 +19,9 @@ export interface Game {
   recordStats?: boolean;
   activeParticipants?: number;
   averageTimePlayed?: number;
+  timePlayedP50?: number; // Percentiles de duración de sesión, en minutos
+  timePlayedP90?: number;
+  timePlayedP99?: number;
 }
 
 export interface GameMetric {